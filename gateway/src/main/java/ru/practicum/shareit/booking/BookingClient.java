@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
@@ -12,8 +16,12 @@ import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
 import javax.validation.ValidationException;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.util.Util.checkUserId;
 
@@ -21,14 +29,20 @@ import static ru.practicum.shareit.util.Util.checkUserId;
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private static final String ITEMS_PREFIX = "/items";
+
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public BookingClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory, ObjectMapper objectMapper) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        this.objectMapper = objectMapper;
     }
 
 
@@ -39,14 +53,16 @@ public class BookingClient extends BaseClient {
      * @param userId         of creator
      * @return response from server
      */
-    public ResponseEntity<Object> createBooking(BookingPostDto bookingPostDto, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createBooking(BookingPostDto bookingPostDto, String userId) {
         checkUserId(userId);
         validateDate(bookingPostDto);
-        return post("", Integer.parseInt(userId), bookingPostDto);
+        return post("", Integer.parseInt(userId), bookingPostDto)     // Last and next bookings of item
+                .whenComplete((response, e) -> evict(ITEMS_PREFIX + "/" + bookingPostDto.getItemId()));
     }
 
     /**
-     * Handle update request
+     * Handle update request,
+     * response is read to evict cached item of booking
      *
      * @param bookingId of booking
      * @param approved  booking status
@@ -55,14 +71,38 @@ public class BookingClient extends BaseClient {
      * @param userId    user id
      * @return response from server
      */
-    public ResponseEntity<Object> updateBookingStatus(int bookingId, boolean approved, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateBookingStatus(int bookingId, boolean approved, String userId) {
         checkUserId(userId);
         Map<String, Object> parameters = Map.of(
                 "approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", Integer.parseInt(userId), parameters, null);
+        return exchangeBytes(HttpMethod.PATCH, "/" + bookingId + "?approved={approved}", Integer.parseInt(userId),
+                parameters, null)
+                .whenComplete((response, e) -> evictItems(response, "/item/id"))
+                .thenApply(BaseClient::toObjectResponse);
     }
 
 
+    /**
+     * Handle update request for several bookings,
+     * response is read to evict cached items of updated bookings
+     *
+     * @param bookingIds of bookings
+     * @param approved   booking status
+     *                   true = approved
+     *                   false = rejected
+     * @param userId     user id
+     * @return response from server
+     */
+    public CompletableFuture<ResponseEntity<Object>> updateBookingStatuses(List<Integer> bookingIds, boolean approved, String userId) {
+        checkUserId(userId);
+        Map<String, Object> parameters = Map.of(
+                "approved", approved);
+        return exchangeBytes(HttpMethod.PATCH, "/batch?approved={approved}", Integer.parseInt(userId), parameters,
+                bookingIds)
+                .whenComplete((response, e) -> evictItems(response, "/itemId"))
+                .thenApply(BaseClient::toObjectResponse);
+    }
+
     /**
      * Handle get booking by id request
      *
@@ -70,7 +110,7 @@ public class BookingClient extends BaseClient {
      * @param userId    user id
      * @return response from server
      */
-    public ResponseEntity<Object> getBooking(int bookingId, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(int bookingId, String userId) {
         checkUserId(userId);
         return get("/" + bookingId, Integer.parseInt(userId));
     }
@@ -81,12 +121,25 @@ public class BookingClient extends BaseClient {
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return response from server
      */
-    public ResponseEntity<Object> getAllBookings(BookingState state, Integer from, Integer size, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookings(BookingState state, Integer from, Integer size, String cursor,
+                                                                    String userId) {
         checkUserId(userId);
+        if (cursor != null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("state", state);
+            parameters.put("cursor", cursor);
+            String path = "?state={state}&cursor={cursor}";
+            if (size != null) {
+                parameters.put("size", size);
+                path += "&size={size}";
+            }
+            return get(path, Integer.parseInt(userId), parameters);
+        }
         if ((from != null) && (size != null) && (state != null)) {
             Map<String, Object> parameters = Map.of(
                     "state", state,
@@ -108,13 +161,25 @@ public class BookingClient extends BaseClient {
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return response from server
      */
-    public ResponseEntity<Object> getAllBookingsForAllItems(BookingState state,
-                                                            Integer from, Integer size, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsForAllItems(BookingState state, Integer from, Integer size,
+                                                                               String cursor, String userId) {
         checkUserId(userId);
+        if (cursor != null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("state", state);
+            parameters.put("cursor", cursor);
+            String path = "/owner?state={state}&cursor={cursor}";
+            if (size != null) {
+                parameters.put("size", size);
+                path += "&size={size}";
+            }
+            return get(path, Integer.parseInt(userId), parameters);
+        }
         if ((from != null) && (size != null) && (state != null)) {
             Map<String, Object> parameters = Map.of(
                     "state", state,
@@ -131,6 +196,39 @@ public class BookingClient extends BaseClient {
         return get("/owner", Integer.parseInt(userId));
     }
 
+    /**
+     * Evict cached items of bookings changed by request,
+     * ids of items are read from server response: booking or results of batch,
+     * nothing is changed by error response,
+     * all items are evicted if response is not received or not read
+     *
+     * @param response      of server, null if request failed
+     * @param itemIdPointer JSON pointer to item id in booking or result of batch
+     */
+    private void evictItems(@Nullable ResponseEntity<byte[]> response, String itemIdPointer) {
+        if (response == null) {     // Booking may be changed by server before the failure
+            evictAll(ITEMS_PREFIX);
+            return;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return;
+        }
+        JsonNode bookings;
+        try {
+            bookings = objectMapper.readTree(response.getBody());
+        } catch (IOException | IllegalArgumentException e) {
+            evictAll(ITEMS_PREFIX);
+            return;
+        }
+        Iterable<JsonNode> changed = bookings.isArray() ? bookings : List.of(bookings);
+        for (JsonNode booking : changed) {
+            JsonNode itemId = booking.at(itemIdPointer);
+            if (itemId.isInt()) {
+                evict(ITEMS_PREFIX + "/" + itemId.asInt());
+            }
+        }
+    }
+
     /**
      * Validation of booking's date
      *
@@ -10,8 +10,13 @@ import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.util.exceptions.UnsupportedStatusException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class controller for booking
@@ -22,6 +27,8 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient bookingClient;
 
 
@@ -30,11 +37,12 @@ public class BookingController {
      *
      * @param bookingPostDto to add
      * @param userId         user id
-     * @return added booking
+     * @return added booking, 400 if item is not available
+     * or booking is longer than 365 days when bookings are partitioned (shareit.booking-partitions.enabled)
      */
     @PostMapping()
-    public ResponseEntity<Object> createBooking(@Valid @RequestBody BookingPostDto bookingPostDto,
-                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createBooking(@Valid @RequestBody BookingPostDto bookingPostDto,
+                                                                   @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return bookingClient.createBooking(bookingPostDto, userId);
     }
 
@@ -50,12 +58,31 @@ public class BookingController {
      * @return updated booking
      */
     @PatchMapping(value = "/{bookingId}")
-    public ResponseEntity<Object> updateBookingStatus(@PathVariable int bookingId,
-                                                      @RequestParam(value = "approved") boolean approved,
-                                                      @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateBookingStatus(@PathVariable int bookingId,
+                                                                         @RequestParam(value = "approved") boolean approved,
+                                                                         @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return bookingClient.updateBookingStatus(bookingId, approved, userId);
     }
 
+    /**
+     * PATCH request handler to update status of several bookings
+     * with validation
+     *
+     * @param bookingIds of bookings
+     * @param approved   booking status
+     *                   true = approved
+     *                   false = rejected
+     * @param userId     user id
+     * @return result for every booking
+     */
+    @PatchMapping(value = "/batch")
+    public CompletableFuture<ResponseEntity<Object>> updateBookingStatuses(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@NotNull @Positive Integer> bookingIds,
+            @RequestParam(value = "approved") boolean approved,
+            @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+        return bookingClient.updateBookingStatuses(bookingIds, approved, userId);
+    }
+
     /**
      * GET booking by id
      *
@@ -64,8 +91,8 @@ public class BookingController {
      * @return booking
      */
     @GetMapping(value = "/{bookingId}")
-    public ResponseEntity<Object> getBooking(@PathVariable int bookingId,
-                                             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@PathVariable int bookingId,
+                                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return bookingClient.getBooking(bookingId, userId);
     }
 
@@ -74,19 +101,21 @@ public class BookingController {
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return list of bookings
      */
     @GetMapping()
-    public ResponseEntity<Object> getAllBookings(
+    public CompletableFuture<ResponseEntity<Object>> getAllBookings(
             @PositiveOrZero @RequestParam(value = "from", required = false) Integer from,
             @Positive @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "state", defaultValue = "ALL", required = false) String state,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new UnsupportedStatusException("Unknown state: " + state));
-        return bookingClient.getAllBookings(bookingState, from, size, userId);
+        return bookingClient.getAllBookings(bookingState, from, size, cursor, userId);
     }
 
     /**
@@ -95,18 +124,20 @@ public class BookingController {
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return list of all bookings for all items
      */
     @GetMapping(value = "/owner")
-    public ResponseEntity<Object> getAllBookingsForAllItems(
+    public CompletableFuture<ResponseEntity<Object>> getAllBookingsForAllItems(
             @PositiveOrZero @RequestParam(value = "from", required = false) Integer from,
             @Positive @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "state", defaultValue = "ALL", required = false) String state,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new UnsupportedStatusException("Unknown state: " + state));
-        return bookingClient.getAllBookingsForAllItems(bookingState, from, size, userId);
+        return bookingClient.getAllBookingsForAllItems(bookingState, from, size, cursor, userId);
     }
 }
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-blocking client of ShareIt server:
+ * requests are sent without holding a thread
+ * until the response is received
+ */
+@Component
+public class AsyncServerClient {
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration readTimeout;
+
+    private final Semaphore inFlight;
+
+    @Autowired
+    public AsyncServerClient(HttpClient httpClient, ObjectMapper objectMapper, HttpClientProperties properties) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.readTimeout = properties.getReadTimeout();
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+    }
+
+    /**
+     * Send request to server, the returned future
+     * completes when the whole response is received
+     *
+     * @param method  of request
+     * @param uri     of request
+     * @param headers of request
+     * @param body    of request, may be null
+     * @return future of response with body as bytes,
+     * completed with ResourceAccessException on I/O error
+     * or when too many requests are in flight
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                              @Nullable Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), toBodyPublisher(body));
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new ResourceAccessException("Too many requests in flight on " +
+                    method + " request for \"" + uri + "\""));
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    inFlight.release();
+                    if (e != null) {
+                        throw toCompletionException(method, uri, e);
+                    }
+                    return toResponseEntity(response);
+                });
+    }
+
+    private HttpRequest.BodyPublisher toBodyPublisher(@Nullable Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> toResponseEntity(HttpResponse<byte[]> response) {
+        return ResponseEntity.status(response.statusCode())
+                .headers(BaseClient.relayedHeaders(response.headers().map()))
+                .body(response.body());
+    }
+
+    /**
+     * Wrap I/O error to ResourceAccessException
+     * as RestTemplate does
+     */
+    private static CompletionException toCompletionException(HttpMethod method, URI uri, Throwable e) {
+        Throwable cause = ((e instanceof CompletionException) && (e.getCause() != null)) ? e.getCause() : e;
+        if (cause instanceof IOException) {
+            cause = new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " +
+                    cause.getMessage(), (IOException) cause);
+        }
+        return new CompletionException(cause);
+    }
+}
@@ -1,86 +1,200 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Base client class for REST with all basic requests
+ * Base client class for REST with all basic requests,
+ * in pass-through mode server responses are relayed as bytes
+ * without reading them to objects,
+ * in non-blocking mode responses are returned
+ * by futures completed without holding the request thread,
+ * identical GETs of single resources in flight at once
+ * may be sent to server as one
  */
 public class BaseClient {
+    /**
+     * Headers of one connection, not relayed to gateway response
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
     protected final RestTemplate rest;
 
+    private ProxyMode mode = ProxyMode.PASS_THROUGH;
+
+    private AsyncServerClient asyncClient;
+
+    private ResponseCache responseCache;
+
+    private SingleFlight singleFlight;
+
     public BaseClient(RestTemplate rest) {
         this.rest = rest;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    @Value("${shareit-server.proxy-mode:pass-through}")
+    public void setMode(ProxyMode mode) {
+        this.mode = mode;
+    }
+
+    @Autowired
+    public void setAsyncClient(AsyncServerClient asyncClient) {
+        this.asyncClient = asyncClient;
+    }
+
+    @Autowired
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Autowired
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Integer userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Integer userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Integer userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * GET single resource through the response cache if it is enabled,
+     * waiting for identical GET in flight if coalescing is enabled
+     *
+     * @param path   of resource
+     * @param userId of user
+     * @return response from the cache or server
+     */
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, Integer userId) {
+        if (!responseCache.isEnabled() && !singleFlight.isEnabled()) {
+            return get(path, userId);
+        }
+        URI uri = expand(path, null);
+        if (!responseCache.isEnabled()) {
+            return getBytes(uri, userId, new HttpHeaders()).thenApply(BaseClient::toObjectResponse);
+        }
+        return responseCache.get(userId, uri, conditionalHeaders -> getBytes(uri, userId, conditionalHeaders))
+                .thenApply(BaseClient::toObjectResponse);
+    }
+
+    /**
+     * Mark cached responses of resource as changed
+     *
+     * @param resource path of resource, like /items/1
+     */
+    protected void evict(String resource) {
+        if (responseCache.isEnabled()) {
+            responseCache.evict(resource);
+        }
+    }
+
+    /**
+     * Mark cached responses of all resources in collection as changed
+     *
+     * @param collection path of collection, like /items
+     */
+    protected void evictAll(String collection) {
+        if (responseCache.isEnabled()) {
+            responseCache.evictAll(collection);
+        }
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Integer userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Integer userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, Integer userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, Integer userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Integer userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Integer userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Integer userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Integer userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Integer userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Integer userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Integer userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        switch (mode) {
+            case NON_BLOCKING:
+                return asyncClient.exchange(method, expand(path, parameters), requestEntity.getHeaders(), body)
+                        .thenApply(BaseClient::toObjectResponse);
+            case PASS_THROUGH:
+                return CompletableFuture.completedFuture(relayRequest(method, path, parameters, requestEntity));
+            default:
+                return CompletableFuture.completedFuture(exchange(method, path, parameters, requestEntity));
+        }
+    }
 
+    /**
+     * Send request to server and read response body to objects
+     *
+     * @param method        of request
+     * @param path          of request
+     * @param parameters    of path, may be null
+     * @param requestEntity headers and body of request
+     * @return response with body read from server
+     */
+    private ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                            HttpEntity<?> requestEntity) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -94,6 +208,127 @@ public class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    /**
+     * Send GET of single resource to server
+     * and read the whole response body as bytes,
+     * waits for identical GET in flight if coalescing is enabled:
+     * of the same user and URI with the same validator of cached response
+     *
+     * @param uri                of resource
+     * @param userId             of user
+     * @param conditionalHeaders validator of cached response, may be empty
+     * @return future of response, error responses are returned the same way
+     */
+    private CompletableFuture<ResponseEntity<byte[]>> getBytes(URI uri, Integer userId,
+                                                               HttpHeaders conditionalHeaders) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.addAll(conditionalHeaders);
+        if (!singleFlight.isEnabled()) {
+            return sendBytes(HttpMethod.GET, uri, headers, null);
+        }
+        String key = userId + " " + uri + " " + String.join(",", conditionalHeaders.getIfNoneMatch());
+        return singleFlight.execute(key, () -> sendBytes(HttpMethod.GET, uri, headers, null));
+    }
+
+    /**
+     * Send request to server and read the whole response body as bytes
+     * in any mode, for small responses read by the gateway itself,
+     * like changed resources to evict from the response cache
+     *
+     * @param method     of request
+     * @param path       of request
+     * @param userId     of user
+     * @param parameters of path, may be null
+     * @param body       of request, may be null
+     * @return future of response, error responses are returned the same way
+     */
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> exchangeBytes(HttpMethod method, String path,
+                                                                          Integer userId,
+                                                                          @Nullable Map<String, Object> parameters,
+                                                                          @Nullable T body) {
+        return sendBytes(method, expand(path, parameters), defaultHeaders(userId), body);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> sendBytes(HttpMethod method, URI uri, HttpHeaders headers,
+                                                                @Nullable Object body) {
+        if (mode == ProxyMode.NON_BLOCKING) {
+            return asyncClient.exchange(method, uri, headers, body);
+        }
+        ResponseEntity<byte[]> response;
+        try {
+            response = rest.exchange(uri, method, new HttpEntity<>(body, headers), byte[].class);
+        } catch (HttpStatusCodeException e) {
+            response = ResponseEntity.status(e.getRawStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return CompletableFuture.completedFuture(ResponseEntity.status(response.getStatusCodeValue())
+                .headers(relayedHeaders(response.getHeaders()))
+                .body(response.getBody()));
+    }
+
+    /**
+     * Send request to server and relay its response:
+     * status, headers and body stream,
+     * error responses are relayed the same way
+     *
+     * @param method        of request
+     * @param path          of request
+     * @param parameters    of path, may be null
+     * @param requestEntity headers and body of request
+     * @return response with body streamed from server
+     */
+    private ResponseEntity<Object> relayRequest(HttpMethod method, String path,
+                                                @Nullable Map<String, Object> parameters,
+                                                HttpEntity<?> requestEntity) {
+        URI uri = expand(path, parameters);
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            rest.httpEntityCallback(requestEntity).doWithRequest(request);
+            response = request.execute();
+
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(relayedHeaders(response.getHeaders()))
+                    .body(new InputStreamResource(new ResponseBodyStream(response)));
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " +
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get headers of server response to relay,
+     * without headers of the connection
+     *
+     * @param serverHeaders of server response
+     * @return headers of gateway response
+     */
+    static HttpHeaders relayedHeaders(@Nullable Map<String, List<String>> serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.put(name, values);
+                }
+            });
+        }
+        return headers;
+    }
+
+    protected static ResponseEntity<Object> toObjectResponse(ResponseEntity<byte[]> response) {
+        return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCodeValue());
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return (parameters != null)
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
     private HttpHeaders defaultHeaders(Integer userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
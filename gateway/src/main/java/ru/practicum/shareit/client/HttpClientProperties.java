@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Class with settings of HTTP connections
+ * to ShareIt server shared by all clients
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    /**
+     * Max number of open connections
+     */
+    private int maxTotal = 200;
+    /**
+     * Max number of open connections to one host,
+     * all clients call the same server
+     */
+    private int maxPerRoute = 200;
+    /**
+     * Timeout to open connection
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * Timeout to wait for response data
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+    /**
+     * Timeout to lease connection from the pool
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    /**
+     * Time to keep connection alive if server does not tell it
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+    /**
+     * Idle time after which connection is closed
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    /**
+     * Idle time after which connection is checked before reuse
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    /**
+     * Number of threads completing responses in non-blocking mode,
+     * connections are not pooled by the limits above in this mode
+     */
+    private int asyncThreads = 4;
+    /**
+     * Max number of requests waiting for server response in non-blocking mode,
+     * other requests are rejected to keep memory bounded
+     */
+    private int maxInFlight = 1000;
+}
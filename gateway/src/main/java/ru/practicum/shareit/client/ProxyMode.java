@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Modes of sending requests to ShareIt server
+ * and relaying its responses
+ */
+public enum ProxyMode {
+    /**
+     * Blocking request, response body read to objects
+     * and written back with Jackson
+     */
+    OBJECTS,
+    /**
+     * Blocking request, response body streamed
+     * to gateway response as bytes
+     */
+    PASS_THROUGH,
+    /**
+     * Non-blocking request, request thread is released
+     * until the whole response is received
+     */
+    NON_BLOCKING
+}
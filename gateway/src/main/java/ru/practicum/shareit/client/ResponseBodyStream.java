@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+
+/**
+ * Body of server response relayed to gateway response,
+ * closing the server response to release its connection
+ * when the body is written or the writing fails
+ */
+class ResponseBodyStream extends FilterInputStream {
+
+    private final ClientHttpResponse response;
+
+    ResponseBodyStream(ClientHttpResponse response) throws IOException {
+        super(response.getBody());
+        this.response = response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            response.close();
+        }
+    }
+}
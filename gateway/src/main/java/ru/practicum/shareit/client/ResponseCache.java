@@ -0,0 +1,264 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of server responses to GET of single resources
+ * keyed by user and URI. Entry is fresh for TTL unless the resource
+ * or its collection is changed through the gateway, then it is
+ * revalidated by its ETag: server answers 304 if the body is the same.
+ * Changes are versioned by one counter and the last changes of max-size
+ * paths are kept, a path without kept change is taken as changed
+ * at the last forgotten change, so forgetting only makes entries stale
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "gateway-responses";
+
+    private final boolean enabled;
+
+    /**
+     * Path of server URL, removed from paths of resources
+     */
+    private final String basePath;
+
+    private final long ttl;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * Versions of the last changes of resources and collections
+     * in order of change, guarded by entries
+     */
+    private final Map<String, Long> changes;
+
+    /**
+     * Version of the last change, guarded by entries
+     */
+    private long version;
+
+    /**
+     * Version of the last change removed from changes, guarded by entries
+     */
+    private long forgottenVersion;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong notModified = new AtomicLong();
+
+    public ResponseCache(@Value("${sv.url}") String serverUrl,
+                         @Value("${shareit-server.cache.enabled:false}") boolean enabled,
+                         @Value("${shareit-server.cache.max-size:10000}") int maxSize,
+                         @Value("${shareit-server.cache.ttl:30s}") Duration ttl) {
+        this.enabled = enabled;
+        String serverPath = URI.create(serverUrl).getPath();
+        this.basePath = (serverPath == null) ? "" : serverPath.replaceAll("/+$", "");
+        this.ttl = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.changes = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > maxSize) {
+                    forgottenVersion = eldest.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get response from the cache if it is fresh,
+     * else load it from server with validator of the cached response
+     * and put to the cache if it is OK
+     *
+     * @param userId of user, may be null
+     * @param uri    of resource
+     * @param loader to send request to server with additional headers
+     * @return future of response with body as bytes, not to be changed
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> get(
+            @Nullable Integer userId, URI uri,
+            Function<HttpHeaders, CompletableFuture<ResponseEntity<byte[]>>> loader) {
+        String key = userId + " " + uri;
+        String resource = uri.getPath().substring(basePath.length());
+        String collection = getCollection(resource);
+        long now = System.nanoTime();
+        Entry entry;
+        long loadVersion;       // Responses loaded during change are stale
+        synchronized (entries) {
+            entry = entries.get(key);
+            if ((entry != null) && entry.isFresh(now, Math.max(lastChange(resource), lastChange(collection)))) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(entry.response);
+            }
+            loadVersion = version;
+        }
+
+        misses.incrementAndGet();
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        if ((entry != null) && (entry.response.getHeaders().getETag() != null)) {
+            conditionalHeaders.setIfNoneMatch(entry.response.getHeaders().getETag());
+        }
+        Entry cached = entry;
+        return loader.apply(conditionalHeaders).thenApply(response -> {
+            ResponseEntity<byte[]> result = response;
+            if ((cached != null) && (response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value())) {
+                notModified.incrementAndGet();
+                result = cached.response;
+            } else if (response.getStatusCodeValue() != HttpStatus.OK.value()) {
+                return response;
+            }
+            Entry loaded = new Entry(result, System.nanoTime() + ttl, loadVersion);
+            synchronized (entries) {
+                entries.put(key, loaded);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Mark cached responses of resource as changed
+     *
+     * @param resource path of resource, like /items/1
+     */
+    public void evict(String resource) {
+        increment(resource);
+    }
+
+    /**
+     * Mark cached responses of all resources
+     * in collection as changed
+     *
+     * @param collection path of collection, like /items
+     */
+    public void evictAll(String collection) {
+        increment(collection);
+    }
+
+    /**
+     * Get number of cached responses
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long gets = hits.get() + misses.get();
+        return (gets == 0) ? 0 : (double) hits.get() / gets;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.revalidations", notModified, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "not-modified")
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", this, ResponseCache::getHitRatio)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, ResponseCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    /**
+     * Get number of kept changes of resources and collections
+     *
+     * @return size of changes
+     */
+    int changesSize() {
+        synchronized (entries) {
+            return changes.size();
+        }
+    }
+
+    private long lastChange(String path) {
+        Long change = changes.get(path);
+        return (change != null) ? change : forgottenVersion;
+    }
+
+    private void increment(String path) {
+        synchronized (entries) {
+            changes.remove(path);       // Moved to the end as the last change
+            changes.put(path, ++version);
+        }
+    }
+
+    /**
+     * Get collection of resource: /items/1 is in /items
+     */
+    private static String getCollection(String resource) {
+        int end = resource.indexOf('/', 1);
+        return (end > 0) ? resource.substring(0, end) : resource;
+    }
+
+    /**
+     * Cached response with expiration time
+     * and version of changes when its loading started
+     */
+    private static class Entry {
+
+        private final ResponseEntity<byte[]> response;
+
+        private final long expiresAt;
+
+        private final long version;
+
+        private Entry(ResponseEntity<byte[]> response, long expiresAt, long version) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.version = version;
+        }
+
+        private boolean isFresh(long now, long lastChange) {
+            return (now - expiresAt < 0) && (lastChange <= version);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Registry of requests in flight to server:
+ * identical requests sent while one is in flight
+ * wait for its response instead of calling server again
+ */
+@Component
+public class SingleFlight implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final Map<String, CompletableFuture<ResponseEntity<byte[]>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(@Value("${shareit-server.coalesce-gets:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Send request if no identical one is in flight,
+     * else wait for the response of that request.
+     * Request is removed from the registry before its waiters are completed,
+     * so requests coming later get fresh response
+     *
+     * @param key  of request: user, URI and validator of GET
+     * @param call to send request to server
+     * @return future of response shared by all waiters, not to be changed
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> execute(String key,
+                                                             Supplier<CompletableFuture<ResponseEntity<byte[]>>> call) {
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<byte[]>> leader = inFlight.putIfAbsent(key, response);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            return leader.copy();
+        }
+
+        sent.incrementAndGet();
+        try {
+            call.get().whenComplete((result, e) -> {
+                inFlight.remove(key, response);
+                if (e != null) {
+                    response.completeExceptionally(e);
+                } else {
+                    response.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {     // Blocking request failed in this thread
+            inFlight.remove(key, response);
+            response.completeExceptionally(e);
+            throw e;
+        }
+        return response.copy();
+    }
+
+    /**
+     * Get number of distinct requests in flight
+     *
+     * @return size of the registry
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.gets", sent, AtomicLong::get)
+                .tags("result", "sent")
+                .register(registry);
+        FunctionCounter.builder("gateway.gets", coalesced, AtomicLong::get)
+                .tags("result", "coalesced")
+                .register(registry);
+        Gauge.builder("gateway.gets.in.flight", this, SingleFlight::size)
+                .register(registry);
+    }
+}
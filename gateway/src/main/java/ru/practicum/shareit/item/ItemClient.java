@@ -4,7 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
@@ -12,7 +12,10 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.util.Util.checkUserId;
 
@@ -24,11 +27,12 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -41,12 +45,13 @@ public class ItemClient extends BaseClient {
      * @param userId  user id
      * @return response from server
      */
-    public ResponseEntity<Object> createItem(ItemDto itemDto, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createItem(ItemDto itemDto, String userId) {
         checkUserId(userId);
         if (itemDto.getAvailable() == null) {
             throw new ValidationException("No available field!");
         }
-        return post("", Integer.parseInt(userId), itemDto);
+        return post("", Integer.parseInt(userId), itemDto)
+                .whenComplete((response, e) -> evictAll("/requests"));     // Items answering requests
     }
 
     /**
@@ -56,9 +61,9 @@ public class ItemClient extends BaseClient {
      * @param userId user id
      * @return response from server
      */
-    public ResponseEntity<Object> getItemById(int itemId, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemById(int itemId, String userId) {
         checkUserId(userId);
-        return get("/" + itemId, Integer.parseInt(userId));
+        return getCached("/" + itemId, Integer.parseInt(userId));
     }
 
 
@@ -67,11 +72,22 @@ public class ItemClient extends BaseClient {
      *
      * @param from   index of the first element
      * @param size   of the page
+     * @param cursor of the page, empty for the first page
      * @param userId of owner
      * @return response from server
      */
-    public ResponseEntity<Object> getAllItems(Integer from, Integer size, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(Integer from, Integer size, String cursor, String userId) {
         checkUserId(userId);
+        if (cursor != null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("cursor", cursor);
+            String path = "?cursor={cursor}";
+            if (size != null) {
+                parameters.put("size", size);
+                path += "&size={size}";
+            }
+            return get(path, Integer.parseInt(userId), parameters);
+        }
         if ((from != null) && (size != null)) {
             Map<String, Object> parameters = Map.of(
                     "from", from,
@@ -92,9 +108,13 @@ public class ItemClient extends BaseClient {
      * @param userId  of user
      * @return response from server
      */
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, int itemId, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(ItemDto itemDto, int itemId, String userId) {
         checkUserId(userId);
-        return patch("/" + itemId, Integer.parseInt(userId), itemDto);
+        return patch("/" + itemId, Integer.parseInt(userId), itemDto)
+                .whenComplete((response, e) -> {
+                    evict(API_PREFIX + "/" + itemId);
+                    evictAll("/requests");
+                });
     }
 
 
@@ -104,11 +124,24 @@ public class ItemClient extends BaseClient {
      * @param text   to search
      * @param from   index of the first element
      * @param size   of the page
+     * @param cursor of the page, empty for the first page
      * @param userId of owner
      * @return response from server
      */
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> searchItems(String text, Integer from, Integer size, String cursor,
+                                                                 String userId) {
         checkUserId(userId);
+        if (cursor != null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("text", text);
+            parameters.put("cursor", cursor);
+            String path = "/search?text={text}&cursor={cursor}";
+            if (size != null) {
+                parameters.put("size", size);
+                path += "&size={size}";
+            }
+            return get(path, Integer.parseInt(userId), parameters);
+        }
         if ((from != null) && (size != null)) {
             Map<String, Object> parameters = Map.of(
                     "text", text,
@@ -131,8 +164,30 @@ public class ItemClient extends BaseClient {
      * @param userId     of user
      * @return response from server
      */
-    public ResponseEntity<Object> addComment(CommentDto commentDto, int itemId, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(CommentDto commentDto, int itemId, String userId) {
+        checkUserId(userId);
+        return post("/" + itemId + "/comment", Integer.parseInt(userId), commentDto)
+                .whenComplete((response, e) -> evict(API_PREFIX + "/" + itemId));
+    }
+
+    /**
+     * Handle get free intervals request
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @param userId of user
+     * @return response from server
+     */
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(int itemId, LocalDateTime from, LocalDateTime to, String userId) {
         checkUserId(userId);
-        return post("/" + itemId + "/comment", Integer.parseInt(userId), commentDto);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Wrong period!");
+        }
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", Integer.parseInt(userId), parameters);
     }
 }
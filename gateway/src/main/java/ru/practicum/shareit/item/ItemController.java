@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -11,6 +12,8 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class controller for items
@@ -32,8 +35,8 @@ public class ItemController {
      * @return added item
      */
     @PostMapping()
-    public ResponseEntity<Object> createItem(@Valid @RequestBody ItemDto itemDto,
-                                             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createItem(@Valid @RequestBody ItemDto itemDto,
+                                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return itemClient.createItem(itemDto, userId);
     }
 
@@ -45,8 +48,8 @@ public class ItemController {
      * @return item
      */
     @GetMapping(value = "/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable int itemId,
-                                              @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemById(@PathVariable int itemId,
+                                                                 @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return itemClient.getItemById(itemId, userId);
     }
 
@@ -55,15 +58,17 @@ public class ItemController {
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of all user's items
      */
     @GetMapping()
-    public ResponseEntity<Object> getAllItems(
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(
             @PositiveOrZero @RequestParam(value = "from", required = false) Integer from,
             @Positive @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return itemClient.getAllItems(from, size, userId);
+        return itemClient.getAllItems(from, size, cursor, userId);
     }
 
     /**
@@ -75,9 +80,9 @@ public class ItemController {
      * @return updated item
      */
     @PatchMapping(value = "/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
-                                             @PathVariable int itemId,
-                                             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(@RequestBody ItemDto itemDto,
+                                                                @PathVariable int itemId,
+                                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return itemClient.updateItem(itemDto, itemId, userId);
 
     }
@@ -88,16 +93,18 @@ public class ItemController {
      * @param text   to search
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of found items
      */
     @GetMapping(value = "/search")
-    public ResponseEntity<Object> search(
+    public CompletableFuture<ResponseEntity<Object>> search(
             @RequestParam(value = "text") String text,
             @PositiveOrZero @RequestParam(value = "from", required = false) Integer from,
             @Positive @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return itemClient.searchItems(text, from, size, userId);
+        return itemClient.searchItems(text, from, size, cursor, userId);
     }
 
 
@@ -110,9 +117,27 @@ public class ItemController {
      * @return added comment
      */
     @PostMapping(value = "/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@Valid @RequestBody CommentDto commentDto,
-                                             @PathVariable int itemId,
-                                             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(@Valid @RequestBody CommentDto commentDto,
+                                                                @PathVariable int itemId,
+                                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return itemClient.addComment(commentDto, itemId, userId);
     }
+
+    /**
+     * GET free intervals of the item
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @param userId user id
+     * @return free intervals
+     */
+    @GetMapping(value = "/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(
+            @PathVariable int itemId,
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+        return itemClient.getAvailability(itemId, from, to, userId);
+    }
 }
@@ -4,13 +4,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.RequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.util.Util.checkUserId;
 
@@ -22,11 +24,12 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -39,7 +42,7 @@ public class RequestClient extends BaseClient {
      * @param userId     of creator
      * @return response from server
      */
-    public ResponseEntity<Object> createRequest(RequestDto requestDto, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createRequest(RequestDto requestDto, String userId) {
         checkUserId(userId);
         return post("", Integer.parseInt(userId), requestDto);
     }
@@ -50,7 +53,7 @@ public class RequestClient extends BaseClient {
      * @param userId of user
      * @return response from server
      */
-    public ResponseEntity<Object> getUserRequests(String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserRequests(String userId) {
         checkUserId(userId);
         return get("", Integer.parseInt(userId));
     }
@@ -63,9 +66,9 @@ public class RequestClient extends BaseClient {
      * @param userId    of owner
      * @return response from server
      */
-    public ResponseEntity<Object> getRequestById(int requestId, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(int requestId, String userId) {
         checkUserId(userId);
-        return get("/" + requestId, Integer.parseInt(userId));
+        return getCached("/" + requestId, Integer.parseInt(userId));
     }
 
     /**
@@ -73,11 +76,22 @@ public class RequestClient extends BaseClient {
      *
      * @param from   index of the first element
      * @param size   of the page
+     * @param cursor of the page, empty for the first page
      * @param userId of owner
      * @return response from server
      */
-    public ResponseEntity<Object> getAllRequests(Integer from, Integer size, String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(Integer from, Integer size, String cursor, String userId) {
         checkUserId(userId);
+        if (cursor != null) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("cursor", cursor);
+            String path = "/all?cursor={cursor}";
+            if (size != null) {
+                parameters.put("size", size);
+                path += "&size={size}";
+            }
+            return get(path, Integer.parseInt(userId), parameters);
+        }
         if ((from != null) && (size != null)) {
             Map<String, Object> parameters = Map.of(
                     "from", from,
@@ -10,6 +10,7 @@ import ru.practicum.shareit.request.dto.RequestDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class controller for request
@@ -31,8 +32,8 @@ public class RequestController {
      * @return added request
      */
     @PostMapping()
-    public ResponseEntity<Object> createRequest(@Valid @RequestBody RequestDto requestDto,
-                                                @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> createRequest(@Valid @RequestBody RequestDto requestDto,
+                                                                   @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return requestClient.createRequest(requestDto, userId);
     }
 
@@ -43,7 +44,7 @@ public class RequestController {
      * @return list of user's requests
      */
     @GetMapping()
-    public ResponseEntity<Object> getUserRequests(@RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserRequests(@RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return requestClient.getUserRequests(userId);
     }
 
@@ -55,8 +56,8 @@ public class RequestController {
      * @return request
      */
     @GetMapping(value = "/{requestId}")
-    public ResponseEntity<Object> getRequestById(@PathVariable int requestId,
-                                                 @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(@PathVariable int requestId,
+                                                                    @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return requestClient.getRequestById(requestId, userId);
     }
 
@@ -65,15 +66,17 @@ public class RequestController {
      *
      * @param from   index of the first element
      * @param size   of the page
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of all requests
      */
     @GetMapping(value = "/all")
-    public ResponseEntity<Object> getAllRequests(
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(
             @PositiveOrZero @RequestParam(value = "from", required = false) Integer from,
             @Positive @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return requestClient.getAllRequests(from, size, userId);
+        return requestClient.getAllRequests(from, size, cursor, userId);
     }
 
 }
@@ -4,12 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Class client to prepare REST requests
  */
@@ -18,11 +20,12 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${sv.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -33,7 +36,7 @@ public class UserClient extends BaseClient {
      * @param userDto to create
      * @return response from server
      */
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
@@ -43,8 +46,8 @@ public class UserClient extends BaseClient {
      * @param userId of user to get
      * @return response from server
      */
-    public ResponseEntity<Object> getUserById(Integer userId) {
-        return get("/" + userId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getUserById(Integer userId) {
+        return getCached("/" + userId, userId);
     }
 
     /**
@@ -54,8 +57,12 @@ public class UserClient extends BaseClient {
      * @param userId  of user
      * @return response from server
      */
-    public ResponseEntity<Object> updateUser(UserDto userDto, Integer userId) {
-        return patch("/" + userId, userId, userDto);
+    public CompletableFuture<ResponseEntity<Object>> updateUser(UserDto userDto, Integer userId) {
+        return patch("/" + userId, userId, userDto)
+                .whenComplete((response, e) -> {
+                    evict(API_PREFIX + "/" + userId);
+                    evictAll("/items");     // Names of comments' authors
+                });
     }
 
     /**
@@ -64,8 +71,9 @@ public class UserClient extends BaseClient {
      * @param userId of user to delete
      * @return response from server
      */
-    public ResponseEntity<Object> deleteUser(Integer userId) {
-        return delete("/" + userId, userId);
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(Integer userId) {
+        return delete("/" + userId, userId)
+                .whenComplete((response, e) -> evict(API_PREFIX + "/" + userId));
     }
 
     /**
@@ -73,7 +81,7 @@ public class UserClient extends BaseClient {
      *
      * @return response from server
      */
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class controller for users
@@ -27,7 +28,7 @@ public class UserController {
      * @return added user
      */
     @PostMapping()
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto user) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(@Valid @RequestBody UserDto user) {
         return userClient.createUser(user);
     }
 
@@ -38,7 +39,7 @@ public class UserController {
      * @return user
      */
     @GetMapping(value = "/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable int userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(@PathVariable int userId) {
         return userClient.getUserById(userId);
     }
 
@@ -50,7 +51,7 @@ public class UserController {
      * @return updated user
      */
     @PatchMapping(value = "/{userId}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto updatedUser, @PathVariable Integer userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateUser(@RequestBody UserDto updatedUser, @PathVariable Integer userId) {
         return userClient.updateUser(updatedUser, userId);
     }
 
@@ -60,7 +61,7 @@ public class UserController {
      * @param userId of user to delete
      */
     @DeleteMapping(value = "/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Integer userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(@PathVariable Integer userId) {
         return userClient.deleteUser(userId);
     }
 
@@ -70,7 +71,7 @@ public class UserController {
      * @return list of all saved users
      */
     @GetMapping()
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         return userClient.getAllUsers();
     }
 }
@@ -1,13 +1,18 @@
 package ru.practicum.shareit.util.exceptions;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.util.exceptions.model.ErrorResponse;
 
 import javax.validation.ValidationException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
 
 /**
  * Class handler for exceptions
@@ -38,4 +43,13 @@ public class ErrorHandler {
     public ErrorResponse handleNotSupportedStateException(final UnsupportedStatusException e) {
         return new ErrorResponse(e.getMessage());
     }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleResourceAccessException(final ResourceAccessException e) {
+        Throwable cause = e.getCause();
+        boolean readTimeout = (cause instanceof SocketTimeoutException)     // No response in read timeout
+                || ((cause instanceof HttpTimeoutException) && !(cause instanceof HttpConnectTimeoutException));
+        HttpStatus status = readTimeout ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(new ErrorResponse(e.getMessage()));
+    }
 }
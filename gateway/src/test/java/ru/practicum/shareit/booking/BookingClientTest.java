@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.ResponseCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BookingClientTest {
+
+    private static final String SERVER_URL = "http://localhost:9090";
+
+    MockRestServiceServer server;
+
+    ResponseCache responseCache;
+
+    BookingClient bookingClient;
+
+    @BeforeEach
+    void setUp() {
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        bookingClient = new BookingClient(SERVER_URL, new RestTemplateBuilder(customizer),
+                new SimpleClientHttpRequestFactory(), new ObjectMapper());
+        server = customizer.getServer();
+        responseCache = mock(ResponseCache.class);
+        when(responseCache.isEnabled()).thenReturn(true);
+        bookingClient.setResponseCache(responseCache);
+    }
+
+    @Test
+    void updateBookingStatusEvictsItemOfBooking() {
+        String booking = "{\"id\":1,\"item\":{\"id\":2,\"name\":\"item\"},\"status\":\"APPROVED\"}";
+        server.expect(requestTo(SERVER_URL + "/bookings/1?approved=true"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess(booking, MediaType.APPLICATION_JSON));
+
+        assertEquals(HttpStatus.OK, bookingClient.updateBookingStatus(1, true, "1").join().getStatusCode());
+
+        Mockito.verify(responseCache).evict("/items/2");
+        Mockito.verify(responseCache, never()).evictAll(anyString());
+    }
+
+    @Test
+    void updateBookingStatusesEvictsItemsOfUpdatedBookings() {
+        String results = "[{\"bookingId\":1,\"itemId\":2,\"status\":\"APPROVED\",\"error\":null}," +
+                "{\"bookingId\":3,\"itemId\":null,\"status\":null,\"error\":\"Booking with id 3 not found!\"}]";
+        server.expect(requestTo(SERVER_URL + "/bookings/batch?approved=true"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess(results, MediaType.APPLICATION_JSON));
+
+        bookingClient.updateBookingStatuses(List.of(1, 3), true, "1").join();
+
+        Mockito.verify(responseCache).evict("/items/2");
+        Mockito.verify(responseCache, Mockito.times(1)).evict(anyString());
+        Mockito.verify(responseCache, never()).evictAll(anyString());
+    }
+
+    @Test
+    void updateBookingStatusWithErrorNotEvicts() {
+        server.expect(requestTo(SERVER_URL + "/bookings/1?approved=true"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\":\"Booking not found\"}"));
+
+        assertEquals(HttpStatus.NOT_FOUND, bookingClient.updateBookingStatus(1, true, "1").join().getStatusCode());
+
+        Mockito.verify(responseCache, never()).evict(anyString());
+        Mockito.verify(responseCache, never()).evictAll(anyString());
+    }
+}
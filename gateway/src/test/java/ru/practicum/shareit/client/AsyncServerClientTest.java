@@ -0,0 +1,120 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncServerClientTest {
+
+    private static final byte[] ERROR = "{\"error\":\"User not found\"}".getBytes(StandardCharsets.UTF_8);
+
+    HttpServer server;
+
+    CountDownLatch release;
+
+    AsyncServerClient asyncServerClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        release = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/users/404", exchange -> respond(exchange, 404, ERROR));
+        server.createContext("/users/slow", exchange -> {     // Responds after the test ends
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setReadTimeout(Duration.ofMillis(200));
+        properties.setMaxInFlight(1);
+        asyncServerClient = new AsyncServerClient(HttpClient.newHttpClient(), new ObjectMapper(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void exchangeRelaysErrorStatus() {
+        ResponseEntity<byte[]> response = asyncServerClient.exchange(HttpMethod.GET, uri("/users/404"),
+                new HttpHeaders(), null).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("application/json", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertArrayEquals(ERROR, response.getBody());
+    }
+
+    @Test
+    void exchangeAfterReadTimeout() {
+        CompletableFuture<ResponseEntity<byte[]>> response = asyncServerClient.exchange(HttpMethod.GET,
+                uri("/users/slow"), new HttpHeaders(), Map.of("name", "user"));
+
+        CompletionException e = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(ResourceAccessException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().startsWith("I/O error on GET request"));
+        assertEquals(HttpStatus.NOT_FOUND, asyncServerClient.exchange(HttpMethod.GET, uri("/users/404"),
+                new HttpHeaders(), null).join().getStatusCode());     // Slot in flight is released
+    }
+
+    @Test
+    void exchangeWithTooManyInFlight() {
+        CompletableFuture<ResponseEntity<byte[]>> slow = asyncServerClient.exchange(HttpMethod.GET,
+                uri("/users/slow"), new HttpHeaders(), null);
+
+        CompletionException e = assertThrows(CompletionException.class, () ->
+                asyncServerClient.exchange(HttpMethod.GET, uri("/users/404"), new HttpHeaders(), null).join());
+        assertInstanceOf(ResourceAccessException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().startsWith("Too many requests in flight"));
+        assertThrows(CompletionException.class, slow::join);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Connection", "keep-alive");
+            exchange.sendResponseHeaders(status, body.length);
+            out.write(body);
+        }
+    }
+}
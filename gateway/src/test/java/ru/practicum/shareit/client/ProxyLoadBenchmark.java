@@ -0,0 +1,172 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of gateway proxy modes: concurrent requests to gateway
+ * with few Tomcat threads, each answered by a stub server after a delay.
+ * Reports how many requests were in flight to the server at once,
+ * threads and heap after GC of the JVM (with the stub and the load client).
+ * Runs only on demand, memory is fixed by -Xmx:
+ * mvn test -pl gateway -Dtest=ProxyLoadBenchmark -Dbenchmark.requests=2000 -DargLine=-Xmx256m
+ * (-Dbenchmark.proxy-mode=non-blocking, -Dbenchmark.tomcat-threads=20, -Dbenchmark.delay=500,
+ * -Dbenchmark.max-in-flight=1000, -Dbenchmark.coalesce-gets=true)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark.requests", matches = "\\d+")
+class ProxyLoadBenchmark {
+
+    private static final byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@email.com\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private static final AtomicInteger calls = new AtomicInteger();
+
+    private static HttpServer server;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        int delay = Integer.getInteger("benchmark.delay", 500);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 10_000);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.createContext("/", exchange -> {     // Response is sent later without holding the thread
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            scheduler.schedule(() -> respond(exchange), delay, TimeUnit.MILLISECONDS);
+        });
+        server.start();
+
+        registry.add("sv.url", () -> "http://localhost:" + server.getAddress().getPort());
+        registry.add("shareit-server.proxy-mode", () -> System.getProperty("benchmark.proxy-mode", "pass-through"));
+        registry.add("shareit-server.coalesce-gets", () -> Boolean.getBoolean("benchmark.coalesce-gets"));
+        registry.add("server.tomcat.threads.max", () -> Integer.getInteger("benchmark.tomcat-threads", 20));
+        registry.add("server.tomcat.threads.min-spare", () -> Integer.getInteger("benchmark.tomcat-threads", 20));
+        registry.add("server.tomcat.accept-count", () -> 10_000);
+        registry.add("shareit-server.http-client.max-in-flight",
+                () -> Integer.getInteger("benchmark.max-in-flight", 1000));
+        registry.add("spring.mvc.async.request-timeout", () -> "120s");
+        registry.add("shareit-server.http-client.read-timeout", () -> "120s");
+        registry.add("shareit-server.http-client.connection-request-timeout", () -> "120s");
+        registry.add("shareit-server.http-client.connect-timeout", () -> "60s");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void proxyRequests() {
+        int requests = Integer.getInteger("benchmark.requests");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newFixedThreadPool(2))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1"))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        send(client, request, requests / 10);      // Warm-up
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong maxHeapAfterGc = new AtomicLong(heapBefore);
+        ScheduledFuture<?> sampler = scheduler.scheduleAtFixedRate(() -> maxHeapAfterGc.accumulateAndGet(
+                heapAfterGc(), Math::max), 0, 20, TimeUnit.MILLISECONDS);
+        threads.resetPeakThreadCount();
+        maxInFlight.set(0);
+        calls.set(0);
+
+        long startTime = System.nanoTime();
+        int ok = send(client, request, requests);
+        long time = System.nanoTime() - startTime;
+        sampler.cancel(false);
+
+        System.out.printf("%s: %d of %d requests OK in %d ms, %d server calls, max %d in flight to server, " +
+                        "peak %d threads, heap after GC %d MB before, max %d MB of %d MB%n",
+                System.getProperty("benchmark.proxy-mode", "pass-through"), ok, requests, time / 1_000_000,
+                calls.get(), maxInFlight.get(), threads.getPeakThreadCount(), heapBefore >> 20,
+                maxHeapAfterGc.get() >> 20,
+                memory.getHeapMemoryUsage().getMax() >> 20);
+    }
+
+    /**
+     * Send all requests at once and wait for responses
+     *
+     * @return number of responses with status 200
+     */
+    private static int send(HttpClient client, HttpRequest request, int requests) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            ok += response.handle((r, e) -> (e == null) && (r.statusCode() == 200)).join() ? 1 : 0;
+        }
+        return ok;
+    }
+
+    /**
+     * Get heap used after the last collections of heap pools
+     */
+    private static long heapAfterGc() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> (pool.getType() == MemoryType.HEAP) && (pool.getCollectionUsage() != null))
+                .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                .sum();
+    }
+
+    private static void respond(HttpExchange exchange) {
+        inFlight.decrementAndGet();
+        try (OutputStream body = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            body.write(USER);
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private static final URI ITEM = URI.create("http://localhost:9090/items/1");
+
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    ResponseCache responseCache;
+
+    List<HttpHeaders> requests;
+
+    Function<HttpHeaders, CompletableFuture<ResponseEntity<byte[]>>> loader;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache("http://localhost:9090", true, 2, Duration.ofMinutes(1));
+        requests = new ArrayList<>();
+        loader = headers -> {
+            requests.add(headers);
+            ResponseEntity<byte[]> response = headers.getIfNoneMatch().contains("\"1\"")
+                    ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build()
+                    : ResponseEntity.ok().eTag("\"1\"").body(BODY);
+            return CompletableFuture.completedFuture(response);
+        };
+    }
+
+    @Test
+    void getFromCache() {
+        ResponseEntity<byte[]> loaded = responseCache.get(1, ITEM, loader).join();
+        ResponseEntity<byte[]> cached = responseCache.get(1, ITEM, loader).join();
+        responseCache.get(2, ITEM, loader).join();      // Cached for each user
+
+        assertSame(loaded, cached);
+        assertEquals(2, requests.size());
+        assertEquals(1, responseCache.getHits());
+        assertEquals(2, responseCache.getMisses());
+    }
+
+    @Test
+    void revalidateByETagAfterEvict() {
+        ResponseEntity<byte[]> loaded = responseCache.get(1, ITEM, loader).join();
+        responseCache.evict("/items/1");
+
+        ResponseEntity<byte[]> revalidated = responseCache.get(1, ITEM, loader).join();
+        responseCache.get(1, ITEM, loader).join();
+
+        assertTrue(requests.get(0).getIfNoneMatch().isEmpty());
+        assertEquals(List.of("\"1\""), requests.get(1).getIfNoneMatch());
+        assertSame(loaded, revalidated);        // Body of 304 is taken from the cache
+        assertArrayEquals(BODY, revalidated.getBody());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void revalidateAfterCollectionEvict() {
+        responseCache.get(1, ITEM, loader).join();
+        responseCache.evictAll("/items");
+        responseCache.get(1, ITEM, loader).join();
+
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void staleResponseLoadedDuringEvict() {
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<byte[]>> loading = responseCache.get(1, ITEM, headers -> response);
+        responseCache.evict("/items/1");        // Item is changed while its old version is loaded
+        response.complete(ResponseEntity.ok().body(BODY));
+
+        assertArrayEquals(BODY, loading.join().getBody());
+        responseCache.get(1, ITEM, loader).join();
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void notCacheErrors() {
+        Function<HttpHeaders, CompletableFuture<ResponseEntity<byte[]>>> notFound = headers -> {
+            requests.add(headers);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        };
+
+        responseCache.get(1, ITEM, notFound).join();
+        responseCache.get(1, ITEM, notFound).join();
+
+        assertEquals(2, requests.size());
+        assertEquals(0, responseCache.size());
+    }
+
+    @Test
+    void forgetChangesOverMaxSize() {
+        responseCache.get(1, ITEM, loader).join();
+        responseCache.evict("/items/1");
+        responseCache.evict("/items/2");
+        responseCache.evict("/items/3");        // Change of item 1 is forgotten
+
+        responseCache.get(1, ITEM, loader).join();
+
+        assertEquals(2, responseCache.changesSize());
+        assertEquals(2, requests.size());       // Entry is still stale
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final String KEY = "1 http://localhost:9090/users/1 ";
+
+    SingleFlight singleFlight;
+
+    AtomicInteger calls;
+
+    CompletableFuture<ResponseEntity<byte[]>> response;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight(true);
+        calls = new AtomicInteger();
+        response = new CompletableFuture<>();
+    }
+
+    @Test
+    void executeJoinsCallInFlight() {
+        ResponseEntity<byte[]> result = ResponseEntity.ok(new byte[]{1});
+
+        CompletableFuture<ResponseEntity<byte[]>> leader = singleFlight.execute(KEY, this::call);
+        CompletableFuture<ResponseEntity<byte[]>> waiter = singleFlight.execute(KEY, this::call);
+        singleFlight.execute("2 http://localhost:9090/users/1 ", this::call);     // Other user is sent
+        response.complete(result);
+
+        assertSame(result, leader.join());
+        assertSame(result, waiter.join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void executeWithFailure() {
+        CompletableFuture<ResponseEntity<byte[]>> leader = singleFlight.execute(KEY, this::call);
+        CompletableFuture<ResponseEntity<byte[]>> waiter = singleFlight.execute(KEY, this::call);
+        response.completeExceptionally(new ResourceAccessException("I/O error"));
+
+        assertInstanceOf(ResourceAccessException.class,
+                assertThrows(CompletionException.class, leader::join).getCause());
+        assertInstanceOf(ResourceAccessException.class,
+                assertThrows(CompletionException.class, waiter::join).getCause());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void executeWithFailureInCallingThread() {
+        assertThrows(ResourceAccessException.class, () -> singleFlight.execute(KEY, () -> {
+            throw new ResourceAccessException("I/O error");
+        }));
+
+        singleFlight.execute(KEY, this::call);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executeAfterCompletion() {
+        CompletableFuture<ResponseEntity<byte[]>> waiter = singleFlight.execute(KEY, this::call);
+        waiter.cancel(false);       // Waiter's copy does not complete the shared response
+
+        assertEquals(1, singleFlight.size());
+        response.complete(ResponseEntity.ok(new byte[]{1}));
+        assertEquals(0, singleFlight.size());
+
+        response = new CompletableFuture<>();
+        assertFalse(singleFlight.execute(KEY, this::call).isDone());
+        assertEquals(2, calls.get());
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> call() {
+        calls.incrementAndGet();
+        return response;
+    }
+}
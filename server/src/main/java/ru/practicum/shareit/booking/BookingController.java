@@ -1,9 +1,11 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 
@@ -29,7 +31,8 @@ public class BookingController {
      *
      * @param bookingPostDto to add
      * @param userId         user id
-     * @return added booking
+     * @return added booking, 400 if item is not available
+     * or booking is longer than 365 days when bookings are partitioned (shareit.booking-partitions.enabled)
      */
     @PostMapping()
     public BookingDto createBooking(@RequestBody BookingPostDto bookingPostDto,
@@ -54,6 +57,24 @@ public class BookingController {
         return bookingService.updateBookingStatus(bookingId, approved, userId);
     }
 
+    /**
+     * PATCH request handler to update status of several bookings
+     *
+     * @param bookingIds of bookings
+     * @param approved   booking status
+     *                   true = approved
+     *                   false = rejected
+     * @param userId     user id
+     * @return result for every booking
+     */
+    @PatchMapping(value = "/batch")
+    public List<BookingStatusResultDto> updateBookingStatuses(
+            @RequestBody List<Integer> bookingIds,
+            @RequestParam(value = "approved") boolean approved,
+            @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+        return bookingService.updateBookingStatuses(bookingIds, approved, userId);
+    }
+
     /**
      * GET booking by id
      *
@@ -69,41 +90,56 @@ public class BookingController {
 
     /**
      * GET all bookings for user by state
+     * with cursor of the next page in header
+     * if cursor is requested
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return list of bookings
      */
     @GetMapping()
-    public List<BookingDto> getAllBookings(
+    public ResponseEntity<List<BookingDto>> getAllBookings(
             @RequestParam(value = "from", required = false) Integer from,
             @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "state", defaultValue = "ALL", required = false) String state,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         BookingState bookingState = BookingState.valueOf(state);
-        return bookingService.getAllBookings(bookingState, from, size, userId);
+        if (cursor != null) {
+            return bookingService.getAllBookingsByCursor(bookingState, cursor, size, userId).toResponseEntity();
+        }
+        return ResponseEntity.ok(bookingService.getAllBookings(bookingState, from, size, userId));
 
     }
 
     /**
      * GET all bookings for all items
      * by state
+     * with cursor of the next page in header
+     * if cursor is requested
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param state  of booking
      * @param userId user id
      * @return list of all bookings for all items
      */
     @GetMapping(value = "/owner")
-    public List<BookingDto> getAllBookingsForAllItems(
+    public ResponseEntity<List<BookingDto>> getAllBookingsForAllItems(
             @RequestParam(value = "from", required = false) Integer from,
             @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "state", defaultValue = "ALL", required = false) String state,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         BookingState bookingState = BookingState.valueOf(state);
-        return bookingService.getAllBookingsForAllItems(bookingState, from, size, userId);
+        if (cursor != null) {
+            return bookingService.getAllBookingsForAllItemsByCursor(bookingState, cursor, size, userId)
+                    .toResponseEntity();
+        }
+        return ResponseEntity.ok(bookingService.getAllBookingsForAllItems(bookingState, from, size, userId));
     }
 }
@@ -5,9 +5,10 @@ import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingHistory;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingItemView;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,7 +29,24 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .booker(booking.getBooker())
                 .item(booking.getItem())
-                .status(stateToStatus(booking))
+                .status(BookingStatusDto.valueOf(booking.getStatus().name()))
+                .build();
+    }
+
+    /**
+     * Transform active or archived booking to bookingDto object
+     *
+     * @param booking to transform
+     * @return bookingDto object
+     */
+    public static BookingDto toBookingDto(BookingHistory booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .booker(booking.getBooker())
+                .item(booking.getItem())
+                .status(BookingStatusDto.valueOf(booking.getStatus().name()))
                 .build();
     }
 
@@ -58,7 +76,7 @@ public class BookingMapper {
                 .end(bookingDto.getEnd())
                 .item(bookingDto.getItem())
                 .booker(bookingDto.getBooker())
-                .state(statusToState(bookingDto))
+                .status(BookingStatus.valueOf(bookingDto.getStatus().name()))
                 .build();
     }
 
@@ -78,64 +96,37 @@ public class BookingMapper {
     }
 
     /**
-     * Transform list of booking to bookingDto objects
+     * Transform booking projection to bookingItemDto object
      *
-     * @param bookingList to transform
-     * @return list of bookingDto
+     * @param bookingItemView to transform
+     * @return bookingItemDto object
      */
-    public static List<BookingDto> toListBookingDto(List<Booking> bookingList) {
-        return bookingList.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+    public static BookingItemDto toBookingItemDto(BookingItemView bookingItemView) {
+        return BookingItemDto.builder()
+                .id(bookingItemView.getId())
+                .bookerId(bookingItemView.getBookerId())
+                .start(bookingItemView.getStartTime())
+                .end(bookingItemView.getEndTime())
+                .build();
     }
 
     /**
-     * Transform status to state
-     * DTO object only with status
-     * Database objects only with state
+     * Transform list of booking to bookingDto objects
      *
-     * @param bookingDto object to transform status
-     * @return state for booking object
+     * @param bookingList to transform
+     * @return list of bookingDto
      */
-    private static BookingState statusToState(BookingDto bookingDto) {
-        BookingState bookingState = BookingState.CURRENT;
-
-        switch (bookingDto.getStatus()) {
-            case WAITING:
-                bookingState = BookingState.WAITING;
-                break;
-            case REJECTED:
-                bookingState = BookingState.REJECTED;
-                break;
-            case APPROVED:
-                if (bookingDto.getEnd().isBefore(LocalDateTime.now())) {
-                    bookingState = BookingState.PAST;
-                } else if (bookingDto.getStart().isAfter(LocalDateTime.now())) {
-                    bookingState = BookingState.FUTURE;
-                }
-                break;
-        }
-
-        return bookingState;
+    public static List<BookingDto> toListBookingDto(List<Booking> bookingList) {
+        return bookingList.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
     }
 
     /**
-     * Transform state to status
-     * DTO object only with status
-     * Database objects only with state
+     * Transform list of active or archived bookings to bookingDto objects
      *
-     * @param booking to transform
-     * @return status
+     * @param bookingList to transform
+     * @return list of bookingDto
      */
-    private static BookingStatusDto stateToStatus(Booking booking) {
-        switch (booking.getState()) {
-            case CURRENT:
-            case PAST:
-            case FUTURE:
-                return BookingStatusDto.APPROVED;
-            case REJECTED:
-                return BookingStatusDto.REJECTED;
-            case WAITING:
-            default:
-                return BookingStatusDto.WAITING;
-        }
+    public static List<BookingDto> toListBookingHistoryDto(List<BookingHistory> bookingList) {
+        return bookingList.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO class for result of booking status update
+ * in batch request, with error if booking is not updated,
+ * item of updated booking is returned for eviction of its cached responses
+ */
+@Data
+@Builder
+public class BookingStatusResultDto {
+    private int bookingId;
+    private Integer itemId;
+    private BookingStatusDto status;
+    private String error;
+}
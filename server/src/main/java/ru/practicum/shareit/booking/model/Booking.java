@@ -8,6 +8,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -20,6 +21,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "bookings")
 public class Booking {
+    /**
+     * Partitioned bookings are not longer, so bookings overlapping some time
+     * start after it minus max duration, that bounds scans on start time
+     */
+    public static final Duration MAX_DURATION = Duration.ofDays(365);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "booking_id")
@@ -34,6 +41,11 @@ public class Booking {
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User booker;
+    @Column(name = "owner_id")
+    private int ownerId;
     @Enumerated(EnumType.STRING)
-    private BookingState state;
+    @Column(name = "state")
+    private BookingStatus status;
+    @Version
+    private long version;
 }
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Class with booking's components
+ * read from both active and archived bookings
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "bookings_history")
+public class BookingHistory {
+    @Id
+    @Column(name = "booking_id")
+    private int id;
+    @Column(name = "start_time")
+    private LocalDateTime start;
+    @Column(name = "end_time")
+    private LocalDateTime end;
+    @ManyToOne
+    @JoinColumn(name = "item_id")
+    private Item item;
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User booker;
+    @Column(name = "owner_id")
+    private int ownerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state")
+    private BookingStatus status;
+}
@@ -1,8 +1,8 @@
 package ru.practicum.shareit.booking.model;
 
 /**
- * Enum for booking states
- * only for database objects
+ * Enum for booking states to filter bookings,
+ * current, past and future bookings are found by dates
  */
 public enum BookingState {
     ALL,
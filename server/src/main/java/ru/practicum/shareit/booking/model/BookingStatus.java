@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Enum for booking statuses
+ * only for database objects
+ */
+public enum BookingStatus {
+    WAITING,
+    APPROVED,
+    REJECTED
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background job to move bookings ended long ago
+ * from bookings table to the archive,
+ * every batch is moved in its own transaction,
+ * so interrupted run is continued by the next one
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking-archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+
+    private final int archiveAfterDays;
+
+    private final int batchSize;
+
+    @Autowired
+    public BookingArchiver(BookingRepository bookingRepository,
+                           @Value("${shareit.booking-archive.after-days:90}") int archiveAfterDays,
+                           @Value("${shareit.booking-archive.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.archiveAfterDays = archiveAfterDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Move bookings ended more than configured days ago
+     * to the archive in batches
+     *
+     * @return number of moved bookings
+     */
+    @Scheduled(initialDelayString = "${shareit.booking-archive.interval:PT1H}",
+            fixedDelayString = "${shareit.booking-archive.interval:PT1H}")
+    public int archiveBookings() {
+        LocalDateTime endedBefore = LocalDateTime.now().minusDays(archiveAfterDays);
+        int archived = 0;
+        int moved;
+        do {
+            moved = bookingRepository.archiveEndedBefore(endedBefore, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} bookings ended before {}", archived, endedBefore);
+        }
+        return archived;
+    }
+}
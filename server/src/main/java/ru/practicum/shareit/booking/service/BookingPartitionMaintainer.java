@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDate;
+
+/**
+ * Background job to create monthly partitions of bookings
+ * ahead of time, so new bookings do not fall to the default partition,
+ * bookings of the month already there are moved to the created partition,
+ * does nothing for a single bookings table
+ */
+@Slf4j
+@Component
+public class BookingPartitionMaintainer {
+
+    private final BookingRepository bookingRepository;
+
+    private final int monthsAhead;
+
+    @Autowired
+    public BookingPartitionMaintainer(BookingRepository bookingRepository,
+                                      @Value("${shareit.booking-partitions.months-ahead:3}") int monthsAhead) {
+        this.bookingRepository = bookingRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Create partitions for the current month
+     * and configured months after it
+     *
+     * @return number of created partitions
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-partitions.interval:P1D}")
+    public int createPartitions() {
+        if (!bookingRepository.isPartitioned()) {
+            return 0;
+        }
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                if (bookingRepository.createPartition(month.plusMonths(i))) {
+                    created++;
+                }
+            } catch (DataAccessException e) {       // Next run retries the month
+                log.warn("Cannot create bookings partition for {}: {}", month.plusMonths(i), e.getMessage());
+            }
+        }
+
+        if (created > 0) {
+            log.info("Created {} bookings partitions", created);
+        }
+        return created;
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.util.CursorPage;
 
 import java.util.List;
 
@@ -17,6 +19,8 @@ public interface BookingService {
      * @param bookingPostDto to add
      * @param userId         of user
      * @return added booking
+     * @throws javax.validation.ValidationException if item is not available
+     *                                              or booking is longer than 365 days on partitioned bookings
      */
     BookingDto createBooking(BookingPostDto bookingPostDto, String userId);
 
@@ -30,6 +34,16 @@ public interface BookingService {
      */
     BookingDto updateBookingStatus(int bookingId, boolean status, String userId);
 
+    /**
+     * Update status for several bookings
+     *
+     * @param bookingIds of bookings
+     * @param status     of bookings
+     * @param userId     of user
+     * @return result for every booking
+     */
+    List<BookingStatusResultDto> updateBookingStatuses(List<Integer> bookingIds, boolean status, String userId);
+
     /**
      * Get booking for user
      *
@@ -50,6 +64,19 @@ public interface BookingService {
      */
     List<BookingDto> getAllBookings(BookingState bookingState, Integer from, Integer size, String userId);
 
+    /**
+     * Get page of bookings for user
+     * with keyset pagination
+     *
+     * @param bookingState of bookings
+     * @param cursor       of the page, empty for the first page
+     * @param size         number of elements to return
+     * @param userId       of owner
+     * @return page of sorted bookings
+     */
+    CursorPage<BookingDto> getAllBookingsByCursor(BookingState bookingState, String cursor, Integer size,
+                                                  String userId);
+
     /**
      * Get list of all booking for all user's items
      *
@@ -60,4 +87,17 @@ public interface BookingService {
      * @return list of all bookings
      */
     List<BookingDto> getAllBookingsForAllItems(BookingState bookingState, Integer from, Integer size, String userId);
+
+    /**
+     * Get page of bookings for all user's items
+     * with keyset pagination
+     *
+     * @param bookingState of bookings
+     * @param cursor       of the page, empty for the first page
+     * @param size         number of elements to return
+     * @param userId       of owner
+     * @return page of sorted bookings
+     */
+    CursorPage<BookingDto> getAllBookingsForAllItemsByCursor(BookingState bookingState, String cursor, Integer size,
+                                                             String userId);
 }
\ No newline at end of file
@@ -2,26 +2,50 @@ package ru.practicum.shareit.booking.service;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingHistory;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.booking.model.QBookingHistory;
+import ru.practicum.shareit.booking.storage.BookingHistoryRepository;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.BookingPartiesView;
 import ru.practicum.shareit.booking.storage.BookingRepository;
-import ru.practicum.shareit.item.ItemMapper;
-import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemCache;
+import ru.practicum.shareit.item.storage.ItemCalendarCache;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.AfterCommit;
+import ru.practicum.shareit.util.Cursor;
+import ru.practicum.shareit.util.CursorPage;
+import ru.practicum.shareit.util.StripedLock;
+import ru.practicum.shareit.util.exceptions.ResourceConflictException;
 import ru.practicum.shareit.util.exceptions.ResourceNotFoundException;
 
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,37 +54,97 @@ import java.util.stream.Collectors;
 @Service
 public class BookingServiceImpl implements BookingService {
 
-    private final UserService userService;
+    private static final int APPROVAL_LOCK_STRIPES = 256;
 
-    private final ItemService itemService;
+    /**
+     * Id of booking not saved yet
+     */
+    private static final int NEW_BOOKING = 0;
+
+    private final UserService userService;
 
     private final BookingRepository bookingRepository;
 
+    private final BookingHistoryRepository bookingHistoryRepository;
+
+    private final ItemCache itemCache;
+
+    private final ItemCalendarCache itemCalendarCache;
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    private final StripedLock approvalLocks = new StripedLock(APPROVAL_LOCK_STRIPES);
+
     @Autowired
-    public BookingServiceImpl(UserService userService, ItemService itemService, BookingRepository bookingRepository) {
+    public BookingServiceImpl(UserService userService, BookingRepository bookingRepository,
+                              BookingHistoryRepository bookingHistoryRepository, ItemCache itemCache,
+                              ItemCalendarCache itemCalendarCache, BookingIntervalIndex bookingIntervalIndex) {
         this.userService = userService;
-        this.itemService = itemService;
         this.bookingRepository = bookingRepository;
+        this.bookingHistoryRepository = bookingHistoryRepository;
+        this.itemCache = itemCache;
+        this.itemCalendarCache = itemCalendarCache;
+        this.bookingIntervalIndex = bookingIntervalIndex;
     }
 
 
     /**
      * Add new booking
      * with validation of booking's dates
+     * not longer than max duration for partitioned bookings and
+     * not overlapping approved bookings of item,
+     * item and booker are loaded with one query
      *
      * @param bookingPostDto to add
      * @param userId         of user
      * @return added booking
      */
     @Override
+    @Transactional
     public BookingDto createBooking(BookingPostDto bookingPostDto, String userId) {
-        validateItem(bookingPostDto.getItemId(), userId);
+        int bookerId = Integer.parseInt(userId);
+        BookingPartiesView parties = bookingRepository.findBookingParties(bookingPostDto.getItemId(), bookerId)
+                .orElseThrow(() -> new NoSuchElementException("Item or user not found!"));
+        Item item = parties.getItem();
 
-        return BookingMapper.toBookingDto(bookingRepository.save(toNewBooking(bookingPostDto, userId)));
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            throw new ValidationException("Item is not available for booking!");
+        }
+        if (item.getOwnerId() == bookerId) {
+            throw new ResourceNotFoundException("Owner cannot book it's item!");
+        }
+        if (bookingRepository.isPartitioned() && Duration.between(bookingPostDto.getStart(), bookingPostDto.getEnd())
+                .compareTo(Booking.MAX_DURATION) > 0) {
+            throw new ValidationException("Booking is too long!");
+        }
+        LocalDateTime start = bookingPostDto.getStart();
+        LocalDateTime end = bookingPostDto.getEnd();
+        if (!bookingIntervalIndex.isFree(item.getId(), start, end)      // Index may miss bookings of other instances
+                || (bookingRepository.countApprovedOverlaps(item.getId(), NEW_BOOKING, start, end) > 0)) {
+            throw new ResourceConflictException("Item is already booked for these dates!");
+        }
+
+        Booking booking = Booking.builder()
+                .start(bookingPostDto.getStart())
+                .end(bookingPostDto.getEnd())
+                .item(item)
+                .booker(parties.getBooker())
+                .ownerId(item.getOwnerId())     // Copy of item's owner for owner's bookings
+                .status(BookingStatus.WAITING)
+                .build();
+        BookingDto createdBooking = BookingMapper.toBookingDto(bookingRepository.save(booking));
+        AfterCommit.run(() -> {
+            itemCache.evict(item.getId());
+            itemCalendarCache.evict(item.getId());
+        });
+        return createdBooking;
     }
 
     /**
-     * Update status for booking
+     * Update status for booking in one transaction,
+     * approved booking must not overlap other approved bookings of item.
+     * Lock of booking's item is held until the end of transaction,
+     * interval of approved booking is freed if it is rolled back
      *
      * @param bookingId of booking
      * @param status    of booking
@@ -68,33 +152,98 @@ public class BookingServiceImpl implements BookingService {
      * @return updated booking
      */
     @Override
+    @Transactional
     public BookingDto updateBookingStatus(int bookingId, boolean status, String userId) {
         validateUserId(userId);
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        int itemId = bookingRepository.findItemId(bookingId).orElseThrow();
 
-        if (!booking.getState().equals(BookingState.WAITING)) {
-            throw new ValidationException("Owner has already checked this booking!");
-        }
+        List<Booking> reserved = new ArrayList<>();
+        lockItems(List.of(itemId), reserved);
+        return changeBookingStatus(bookingId, status, userId, reserved);
+    }
 
-        if (Integer.parseInt(userId) != booking.getItem().getOwnerId()) {
-            throw new ResourceNotFoundException("Only item's owner can approve!");
+    /**
+     * Update status for several bookings
+     * with one batch update in one transaction,
+     * approved bookings must not overlap other approved bookings of item.
+     * Locks of bookings' items are held until the end of transaction,
+     * intervals of approved bookings are freed if it is rolled back
+     *
+     * @param bookingIds of bookings
+     * @param status     of bookings
+     * @param userId     of user
+     * @return result for every booking in order of ids
+     */
+    @Override
+    @Transactional
+    public List<BookingStatusResultDto> updateBookingStatuses(List<Integer> bookingIds, boolean status,
+                                                              String userId) {
+        validateUserId(userId);
+        int ownerId = Integer.parseInt(userId);
+        BookingStatus newStatus = status ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Map<Integer, Booking> bookings = bookingRepository.findAllWithItemByIdIn(bookingIds)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> checkedBookings = new ArrayList<>();
+        List<Booking> reserved = new ArrayList<>();
+        lockItems(bookings.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toList()), reserved);
+
+        Map<Integer, BookingStatusResultDto> results = new LinkedHashMap<>();
+        for (int bookingId : bookingIds) {
+            if (results.containsKey(bookingId)) {      // Skip repeated ids
+                continue;
+            }
+            Booking booking = bookings.get(bookingId);
+            String error = null;
+            if (booking == null) {
+                error = "Booking with id " + bookingId + " not found!";
+            } else if (booking.getItem().getOwnerId() != ownerId) {
+                error = "Only item's owner can approve!";
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                error = "Owner has already checked this booking!";
+            } else if (status && !reserve(booking, reserved)) {
+                error = "Item is already booked for these dates!";
+            } else {
+                checkedBookings.add(booking);
+            }
+            results.put(bookingId, BookingStatusResultDto.builder()
+                    .bookingId(bookingId)
+                    .itemId(error == null ? booking.getItem().getId() : null)
+                    .status(error == null ? BookingStatusDto.valueOf(newStatus.name()) : null)
+                    .error(error)
+                    .build());
         }
 
-        BookingState bookingState = BookingState.CURRENT;
-        if (booking.getEnd().isBefore(LocalDateTime.now())) {
-            bookingState = BookingState.PAST;
-        } else if (booking.getStart().isAfter(LocalDateTime.now())) {
-            bookingState = BookingState.FUTURE;
+        boolean[] updated = bookingRepository.updateWaitingStatus(checkedBookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList()), newStatus);
+
+        for (int i = 0; i < updated.length; i++) {
+            Booking booking = checkedBookings.get(i);
+            if (!updated[i]) {      // Checked by another request after it was read
+                if (status) {
+                    bookingIntervalIndex.release(booking.getItem().getId(), booking.getId(), booking.getStart());
+                }
+                BookingStatusResultDto result = results.get(booking.getId());
+                result.setItemId(null);
+                result.setStatus(null);
+                result.setError("Owner has already checked this booking!");
+            }
+            AfterCommit.run(() -> {
+                itemCache.evict(booking.getItem().getId());
+                itemCalendarCache.evict(booking.getItem().getId());
+            });
         }
-
-        booking.setState(status ? bookingState : BookingState.REJECTED);
-
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        return new ArrayList<>(results.values());
     }
 
     /**
      * Get booking for user
-     * with validation of access to booking
+     * with validation of access to booking,
+     * booking not found in bookings is looked for in the archive
      *
      * @param bookingId of booking
      * @param userId    of user
@@ -103,18 +252,22 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public BookingDto getBooking(int bookingId, String userId) {
         validateUserId(userId);
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        BookingDto booking = bookingRepository.findById(bookingId)
+                .map(BookingMapper::toBookingDto)
+                .or(() -> bookingHistoryRepository.findById(bookingId).map(BookingMapper::toBookingDto))
+                .orElseThrow();
 
         if ((Integer.parseInt(userId) != booking.getItem().getOwnerId() &&
                 (Integer.parseInt(userId) != booking.getBooker().getId()))) {
             throw new ResourceNotFoundException("Wrong booking id for that user!");
         }
 
-        return BookingMapper.toBookingDto(booking);
+        return booking;
     }
 
     /**
-     * Get all bookings for user
+     * Get all bookings for user,
+     * all and past bookings are read with archived ones
      *
      * @param bookingState of bookings
      * @param from         index of the first element
@@ -126,24 +279,13 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingDto> getAllBookings(BookingState bookingState, Integer from, Integer size, String userId) {
         validateUserId(userId);
 
+        if (isHistoryState(bookingState)) {
+            BooleanExpression byBookerId = QBookingHistory.bookingHistory.booker.id.eq(Integer.parseInt(userId));
+            return getHistoryList(byBookerId.and(byHistoryState(bookingState)), from, size);
+        }
         BooleanExpression byBookerId = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.isNotNull();
+        BooleanExpression byState = byState(bookingState);
         Sort.Direction sort = Sort.Direction.DESC;
-        if (!bookingState.equals(BookingState.ALL)) {
-            byState = QBooking.booking.state.eq(bookingState);
-        }
-        LocalDateTime now = LocalDateTime.now();
-
-        if (bookingState.equals(BookingState.FUTURE))           // Check other bookings to be future
-            byState = byState.or(QBooking.booking.start.after(now));
-
-        if (bookingState.equals(BookingState.PAST))             // Check other bookings to be past
-            byState = byState.or(QBooking.booking.end.before(now));
-
-        if (bookingState.equals(BookingState.CURRENT)) {        // Check other bookings to be current
-            byState = byState.or(QBooking.booking.start.before(now)
-                    .and(QBooking.booking.end.after(now)));
-        }
         List<Booking> bookingList;
 
         if ((from == null) || (size == null)) {
@@ -159,7 +301,8 @@ public class BookingServiceImpl implements BookingService {
     }
 
     /**
-     * Get list of all booking for all user's items
+     * Get list of all booking for all user's items,
+     * all and past bookings are read with archived ones
      *
      * @param bookingState of bookings
      * @param from         index of the first element
@@ -172,83 +315,303 @@ public class BookingServiceImpl implements BookingService {
                                                       Integer from, Integer size, String userId) {
         validateUserId(userId);
 
-        if (itemService.getAllItems(null, null, userId).isEmpty())  // Check all items, without pagination
-            return null;
-        else {
-            BooleanExpression byItem = QBooking.booking.item.ownerId.eq(Integer.parseInt(userId));
-            BooleanExpression byState = QBooking.booking.state.isNotNull();
-            Sort.Direction sort = Sort.Direction.DESC;
-            if (!bookingState.equals(BookingState.ALL)) {
-                byState = QBooking.booking.state.eq(bookingState);
-            }
-            LocalDateTime now = LocalDateTime.now();
+        if (isHistoryState(bookingState)) {
+            BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+            return getHistoryList(byOwner.and(byHistoryState(bookingState)), from, size);
+        }
+        BooleanExpression byOwner = QBooking.booking.ownerId.eq(Integer.parseInt(userId));
+        BooleanExpression byState = byState(bookingState);
+        Sort.Direction sort = Sort.Direction.DESC;
+        List<Booking> bookingList;
 
-            if (bookingState.equals(BookingState.FUTURE))           // Check other bookings to be future
-                byState = byState.or(QBooking.booking.start.after(now));
+        if ((from == null) || (size == null)) {
+            bookingList = (List<Booking>) bookingRepository.findAll(byOwner.and(byState),
+                    Sort.by(sort, "start"));
+        } else {
+            PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "start"));
+            bookingList = bookingRepository.findAll(byOwner.and(byState), page)
+                    .stream()
+                    .collect(Collectors.toList());
+        }
 
-            if (bookingState.equals(BookingState.PAST))             // Check other bookings to be past
-                byState = byState.or(QBooking.booking.end.before(now));
+        return BookingMapper.toListBookingDto(bookingList);
+    }
 
-            if (bookingState.equals(BookingState.CURRENT)) {        // Check other bookings to be current
-                byState = byState.or(QBooking.booking.start.before(now)
-                        .and(QBooking.booking.end.after(now)));
-            }
-            List<Booking> bookingList;
+    /**
+     * Get page of bookings for user
+     * sorted by start time descending,
+     * all and past bookings are read with archived ones
+     *
+     * @param bookingState of bookings
+     * @param cursor       of the page, empty for the first page
+     * @param size         number of elements to return
+     * @param userId       of owner
+     * @return page of sorted bookings
+     */
+    @Override
+    public CursorPage<BookingDto> getAllBookingsByCursor(BookingState bookingState, String cursor, Integer size,
+                                                         String userId) {
+        validateUserId(userId);
 
-            if ((from == null) || (size == null)) {
-                bookingList = (List<Booking>) bookingRepository.findAll(byItem.and(byState),
-                        Sort.by(sort, "start"));
-            } else {
-                PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "start"));
-                bookingList = bookingRepository.findAll(byItem.and(byState), page)
-                        .stream()
-                        .collect(Collectors.toList());
+        if (isHistoryState(bookingState)) {
+            BooleanExpression byBookerId = QBookingHistory.bookingHistory.booker.id.eq(Integer.parseInt(userId));
+            return getHistoryPage(byBookerId.and(byHistoryState(bookingState)), cursor, size);
+        }
+        BooleanExpression byBookerId = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
+        return getBookingPage(byBookerId.and(byState(bookingState)), cursor, size);
+    }
+
+    /**
+     * Get page of bookings for all user's items
+     * sorted by start time descending,
+     * all and past bookings are read with archived ones
+     *
+     * @param bookingState of bookings
+     * @param cursor       of the page, empty for the first page
+     * @param size         number of elements to return
+     * @param userId       of owner
+     * @return page of sorted bookings
+     */
+    @Override
+    public CursorPage<BookingDto> getAllBookingsForAllItemsByCursor(BookingState bookingState, String cursor,
+                                                                    Integer size, String userId) {
+        validateUserId(userId);
+
+        if (isHistoryState(bookingState)) {
+            BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+            return getHistoryPage(byOwner.and(byHistoryState(bookingState)), cursor, size);
+        }
+        BooleanExpression byOwner = QBooking.booking.ownerId.eq(Integer.parseInt(userId));
+        return getBookingPage(byOwner.and(byState(bookingState)), cursor, size);
+    }
+
+    /**
+     * Check that bookings of the state
+     * can be archived and are read with archived ones,
+     * current and future bookings have not ended, so they are not archived
+     *
+     * @param bookingState of bookings
+     * @return true for all, past, waiting and rejected bookings
+     */
+    private static boolean isHistoryState(BookingState bookingState) {
+        return (bookingState != BookingState.CURRENT) && (bookingState != BookingState.FUTURE);
+    }
+
+    /**
+     * Get predicate for active and archived bookings by state
+     *
+     * @param bookingState all, past, waiting or rejected
+     * @return predicate, null for all bookings
+     */
+    private BooleanExpression byHistoryState(BookingState bookingState) {
+        QBookingHistory booking = QBookingHistory.bookingHistory;
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (bookingState) {
+            case PAST:
+                return booking.start.before(now).and(booking.end.before(now));
+            case WAITING:
+                return booking.status.eq(BookingStatus.WAITING);
+            case REJECTED:
+                return booking.status.eq(BookingStatus.REJECTED);
+            case ALL:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get predicate for not archived bookings by state,
+     * current and future bookings are found by dates
+     * bounding start time to scan index and partitions on it,
+     * current bookings are bounded by max duration when partitioned
+     *
+     * @param bookingState current or future
+     * @return predicate
+     */
+    private BooleanExpression byState(BookingState bookingState) {
+        QBooking booking = QBooking.booking;
+        LocalDateTime now = LocalDateTime.now();
+
+        if (bookingState == BookingState.CURRENT) {
+            BooleanExpression current = booking.start.before(now).and(booking.end.after(now));
+            return bookingRepository.isPartitioned()
+                    ? booking.start.after(now.minus(Booking.MAX_DURATION)).and(current)
+                    : current;
+        }
+        return booking.start.after(now);
+    }
+
+    /**
+     * Get page of bookings after the cursor
+     * seeking on start time and id
+     *
+     * @param predicate to filter bookings
+     * @param cursor    of the page, empty for the first page
+     * @param size      number of elements to return
+     * @return page of sorted bookings
+     */
+    private CursorPage<BookingDto> getBookingPage(BooleanExpression predicate, String cursor, Integer size) {
+        Cursor before = Cursor.decode(cursor);
+        if (before != null) {
+            if (before.getTime() == null) {
+                throw new ValidationException("Wrong cursor!");
             }
+            predicate = predicate.and(QBooking.booking.start.before(before.getTime())
+                    .or(QBooking.booking.start.eq(before.getTime())
+                            .and(QBooking.booking.id.lt(before.getId()))));
+        }
+        int pageSize = Cursor.size(size);
+        List<Booking> bookingList = bookingRepository.findFirst(predicate, pageSize + 1);
 
-            return BookingMapper.toListBookingDto(bookingList);
+        return CursorPage.of(bookingList, pageSize, booking -> new Cursor(booking.getStart(), booking.getId()))
+                .map(BookingMapper::toListBookingDto);
+    }
+
+    /**
+     * Get list of active and archived bookings
+     * sorted by start time descending
+     *
+     * @param predicate to filter bookings
+     * @param from      index of the first element
+     * @param size      number of elements to return
+     * @return list of sorted bookings
+     */
+    private List<BookingDto> getHistoryList(BooleanExpression predicate, Integer from, Integer size) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        List<BookingHistory> bookingList;
+
+        if ((from == null) || (size == null)) {
+            bookingList = (List<BookingHistory>) bookingHistoryRepository.findAll(predicate, sort);
+        } else {
+            bookingList = bookingHistoryRepository.findAll(predicate, PageRequest.of(from / size, size, sort))
+                    .getContent();
         }
+        return BookingMapper.toListBookingHistoryDto(bookingList);
     }
 
     /**
-     * Validation of booking's owner
+     * Get page of active and archived bookings after the cursor
+     * seeking on start time and id
      *
-     * @param userId of owner
+     * @param predicate to filter bookings
+     * @param cursor    of the page, empty for the first page
+     * @param size      number of elements to return
+     * @return page of sorted bookings
      */
-    private void validateUserId(String userId) {
-        int id = Integer.parseInt(userId);
+    private CursorPage<BookingDto> getHistoryPage(BooleanExpression predicate, String cursor, Integer size) {
+        QBookingHistory booking = QBookingHistory.bookingHistory;
+        Cursor before = Cursor.decode(cursor);
+        if (before != null) {
+            if (before.getTime() == null) {
+                throw new ValidationException("Wrong cursor!");
+            }
+            predicate = predicate.and(booking.start.before(before.getTime())
+                    .or(booking.start.eq(before.getTime()).and(booking.id.lt(before.getId()))));
+        }
+        int pageSize = Cursor.size(size);
+        List<BookingHistory> bookingList = bookingHistoryRepository.findFirst(predicate, pageSize + 1);
 
-        userService.getUserById(id);    // Validation of user id
+        return CursorPage.of(bookingList, pageSize, history -> new Cursor(history.getStart(), history.getId()))
+                .map(BookingMapper::toListBookingHistoryDto);
     }
 
     /**
-     * Validation of item to be available
+     * Update status for booking
+     * holding the lock of booking's item
      *
-     * @param itemId of item to validate
-     * @param userID to validate item's owner
+     * @param bookingId of booking
+     * @param status    of booking
+     * @param userId    of user
+     * @param reserved  bookings with intervals reserved in the index
+     * @return updated booking
      */
-    private void validateItem(int itemId, String userID) {
-        if (!itemService.getItemById(itemId, userID).getAvailable()) {
-            throw new ValidationException("Item is not available for booking!");
+    private BookingDto changeBookingStatus(int bookingId, boolean status, String userId, List<Booking> reserved) {
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+            throw new ValidationException("Owner has already checked this booking!");
         }
-        if (itemService.getItemById(itemId, userID).getOwnerId() == Integer.parseInt(userID)) {
-            throw new ResourceNotFoundException("Owner cannot book it's item!");
+
+        if (Integer.parseInt(userId) != booking.getItem().getOwnerId()) {
+            throw new ResourceNotFoundException("Only item's owner can approve!");
         }
+
+        int itemId = booking.getItem().getId();
+        if (status && !reserve(booking, reserved)) {
+            throw new ResourceConflictException("Item is already booked for these dates!");
+        }
+        booking.setStatus(status ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+
+        BookingDto updatedBooking;
+        try {
+            updatedBooking = BookingMapper.toBookingDto(bookingRepository.saveAndFlush(booking));
+        } catch (OptimisticLockingFailureException e) {      // Checked without the lock of item
+            throw new ValidationException("Owner has already checked this booking!");
+        }
+        AfterCommit.run(() -> {
+            itemCache.evict(itemId);
+            itemCalendarCache.evict(itemId);
+        });
+        return updatedBooking;
+    }
+
+    /**
+     * Lock items for approval of their bookings until the end of transaction:
+     * by locks of this server instance and by rows of items in database
+     * for other instances, both are taken in one order.
+     * Intervals reserved in the index are freed if transaction is rolled back
+     *
+     * @param itemIds  of items
+     * @param reserved bookings with intervals reserved in the index during transaction
+     */
+    private void lockItems(Collection<Integer> itemIds, List<Booking> reserved) {
+        List<Lock> locks = approvalLocks.getAll(itemIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int transactionStatus) {
+                if (transactionStatus != STATUS_COMMITTED) {        // Free intervals of not approved
+                    reserved.forEach(booking -> bookingIntervalIndex.release(booking.getItem().getId(),
+                            booking.getId(), booking.getStart()));
+                }
+                locks.forEach(Lock::unlock);
+            }
+        });
+        locks.forEach(Lock::lock);
+        bookingRepository.lockItems(itemIds);
     }
 
     /**
-     * Add item and user to booking object
-     * while transforming from bookingPostDto to booking
-     * if booking is not exist in database
+     * Reserve interval of booking in the index
+     * and check it in the bookings storage,
+     * the index may miss bookings approved by other server instances
      *
-     * @param bookingPostDto to transform
-     * @return booking object
+     * @param booking  to approve
+     * @param reserved bookings with intervals reserved in the index
+     * @return true if interval of booking is free
      */
-    private Booking toNewBooking(BookingPostDto bookingPostDto, String userId) {
-        BookingDto bookingDto = BookingMapper.toBookingDto(bookingPostDto);
-        bookingDto.setItem(ItemMapper.toItem(itemService.getItemById(bookingPostDto.getItemId(), userId)));
-        bookingDto.setBooker(UserMapper.toUser(userService.getUserById(Integer.parseInt(userId))));
-        bookingDto.setStatus(BookingStatusDto.WAITING);
+    private boolean reserve(Booking booking, List<Booking> reserved) {
+        int itemId = booking.getItem().getId();
+        if (!bookingIntervalIndex.reserve(itemId, booking.getId(), booking.getStart(), booking.getEnd())) {
+            return false;
+        }
+        if (bookingRepository.countApprovedOverlaps(itemId, booking.getId(), booking.getStart(),
+                booking.getEnd()) > 0) {
+            bookingIntervalIndex.release(itemId, booking.getId(), booking.getStart());
+            return false;
+        }
+        reserved.add(booking);
+        return true;
+    }
+
+    /**
+     * Validation of booking's owner
+     *
+     * @param userId of owner
+     */
+    private void validateUserId(String userId) {
+        int id = Integer.parseInt(userId);
 
-        return BookingMapper.toBooking(bookingDto);
+        userService.checkUserExists(id);    // Validation of user id
     }
 }
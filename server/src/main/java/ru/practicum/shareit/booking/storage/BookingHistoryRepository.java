@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import ru.practicum.shareit.booking.model.BookingHistory;
+
+/**
+ * Repository interface for bookings_history view
+ * of active and archived bookings
+ * with queryDSL support
+ */
+public interface BookingHistoryRepository extends JpaRepository<BookingHistory, Integer>,
+        QuerydslPredicateExecutor<BookingHistory>, BookingHistoryRepositoryCustom {
+}
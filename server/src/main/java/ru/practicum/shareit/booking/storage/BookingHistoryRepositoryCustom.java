@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.querydsl.core.types.Predicate;
+import ru.practicum.shareit.booking.model.BookingHistory;
+
+import java.util.List;
+
+/**
+ * Repository interface for bookings_history view
+ * with queries not supported by queryDSL executor
+ */
+public interface BookingHistoryRepositoryCustom {
+    /**
+     * Query to database to get first bookings
+     * sorted by start time and id descending,
+     * without count query
+     *
+     * @param predicate to filter bookings
+     * @param limit     max number of bookings
+     * @return list of bookings
+     */
+    List<BookingHistory> findFirst(Predicate predicate, int limit);
+}
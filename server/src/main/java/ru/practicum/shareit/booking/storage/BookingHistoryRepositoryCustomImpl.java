@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import ru.practicum.shareit.booking.model.BookingHistory;
+import ru.practicum.shareit.booking.model.QBookingHistory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.util.List;
+
+/**
+ * Class with queries to bookings_history view
+ * not supported by queryDSL executor
+ */
+public class BookingHistoryRepositoryCustomImpl implements BookingHistoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Query to database to get first bookings
+     * sorted by start time and id descending,
+     * without count query
+     *
+     * @param predicate to filter bookings
+     * @param limit     max number of bookings
+     * @return list of bookings
+     */
+    @Override
+    @Transactional
+    public List<BookingHistory> findFirst(Predicate predicate, int limit) {
+        QBookingHistory booking = QBookingHistory.bookingHistory;
+        return new JPAQuery<BookingHistory>(entityManager)
+                .select(booking)
+                .from(booking)
+                .leftJoin(booking.item).fetchJoin()
+                .leftJoin(booking.booker).fetchJoin()
+                .where(predicate)
+                .orderBy(booking.start.desc(), booking.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+}
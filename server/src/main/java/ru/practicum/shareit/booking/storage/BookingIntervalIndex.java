@@ -0,0 +1,231 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of approved bookings' intervals per item
+ * to check overlaps in O(log n).
+ * Intervals of item are loaded from the bookings storage on first use
+ * and reloaded after TTL to see bookings approved by other server instances,
+ * ended intervals are dropped, items are evicted in LRU order.
+ * The index is a hint: free interval must be checked in the bookings storage
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final int NO_BOOKING = 0;
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Integer, ItemIntervals> items;
+
+    private final long ttl;
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-index.max-items:10000}") int maxItems,
+                                @Value("${shareit.booking-index.ttl:1m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.ttl = ttl.toNanos();
+        this.items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    /**
+     * Check that interval does not overlap
+     * approved bookings of item known to the index
+     *
+     * @param itemId of item
+     * @param start  of interval
+     * @param end    of interval
+     * @return true if item is free for the interval
+     */
+    public boolean isFree(int itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = getIntervals(itemId);
+        synchronized (intervals) {
+            return !intervals.overlaps(start, end, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Add interval of approved booking to the index
+     * if it does not overlap other approved bookings of item
+     *
+     * @param itemId    of item
+     * @param bookingId of booking
+     * @param start     of booking
+     * @param end       of booking
+     * @return true if interval is added
+     */
+    public boolean reserve(int itemId, int bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = getIntervals(itemId);
+        synchronized (intervals) {
+            if (intervals.overlaps(start, end, LocalDateTime.now())) {
+                return false;
+            }
+            intervals.put(new Interval(start, end, bookingId));
+            return true;
+        }
+    }
+
+    /**
+     * Remove interval of booking from the index
+     *
+     * @param itemId    of item
+     * @param bookingId of booking
+     * @param start     of booking
+     */
+    public void release(int itemId, int bookingId, LocalDateTime start) {
+        ItemIntervals intervals;
+        synchronized (items) {
+            intervals = items.get(itemId);
+        }
+        if (intervals == null) {
+            return;
+        }
+        synchronized (intervals) {
+            intervals.remove(start, bookingId);
+        }
+    }
+
+    /**
+     * Get number of items in the index
+     *
+     * @return number of items
+     */
+    public int size() {
+        synchronized (items) {
+            return items.size();
+        }
+    }
+
+    /**
+     * Get intervals of item
+     * or load them from the bookings storage if they are absent or expired
+     *
+     * @param itemId of item
+     * @return intervals of item
+     */
+    private ItemIntervals getIntervals(int itemId) {
+        ItemIntervals intervals;
+        synchronized (items) {
+            intervals = items.get(itemId);
+        }
+        long now = System.nanoTime();
+        if ((intervals != null) && (intervals.expiresAt - now > 0)) {
+            return intervals;
+        }
+
+        ItemIntervals loaded = new ItemIntervals(now + ttl);
+        bookingRepository.findApprovedBookings(itemId, LocalDateTime.now())
+                .forEach(booking -> loaded.merge(new Interval(booking.getStartTime(), booking.getEndTime(),
+                        booking.getId())));
+        synchronized (items) {
+            ItemIntervals current = items.get(itemId);
+            if ((current != null) && (current != intervals)) {     // Keep intervals loaded by another thread
+                return current;
+            }
+            items.put(itemId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Not overlapping intervals of item
+     * sorted by start time
+     */
+    private static class ItemIntervals {
+
+        private final NavigableMap<LocalDateTime, Interval> intervals = new TreeMap<>();
+
+        private final long expiresAt;
+
+        private ItemIntervals(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Check that interval overlaps neighbours:
+         * the last one started before it or the first one started after it,
+         * intervals ended before now are dropped first
+         */
+        private boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+            removeEnded(now);
+            Map.Entry<LocalDateTime, Interval> before = intervals.floorEntry(start);
+            if ((before != null) && before.getValue().end.isAfter(start)) {
+                return true;
+            }
+            Map.Entry<LocalDateTime, Interval> after = intervals.ceilingEntry(start);
+            return (after != null) && after.getKey().isBefore(end);
+        }
+
+        /**
+         * Remove intervals ended before the time,
+         * they are the first ones as intervals do not overlap
+         */
+        private void removeEnded(LocalDateTime now) {
+            Map.Entry<LocalDateTime, Interval> first = intervals.firstEntry();
+            while ((first != null) && !first.getValue().end.isAfter(now)) {
+                intervals.pollFirstEntry();
+                first = intervals.firstEntry();
+            }
+        }
+
+        private void put(Interval interval) {
+            intervals.put(interval.start, interval);
+        }
+
+        private void remove(LocalDateTime start, int bookingId) {
+            Interval interval = intervals.get(start);
+            if ((interval != null) && (interval.bookingId == bookingId)) {
+                intervals.remove(start);
+            }
+        }
+
+        /**
+         * Put interval sorted by start time,
+         * merging it with the last one if they overlap
+         */
+        private void merge(Interval interval) {
+            Map.Entry<LocalDateTime, Interval> last = intervals.lastEntry();
+            if ((last == null) || !last.getValue().end.isAfter(interval.start)) {
+                put(interval);
+                return;
+            }
+            Interval merged = last.getValue();      // Bookings approved before overlaps were checked
+            LocalDateTime end = merged.end.isAfter(interval.end) ? merged.end : interval.end;
+            put(new Interval(merged.start, end, NO_BOOKING));
+        }
+    }
+
+    /**
+     * Interval of approved booking
+     */
+    private static class Interval {
+
+        private final LocalDateTime start;
+
+        private final LocalDateTime end;
+
+        private final int bookingId;
+
+        private Interval(LocalDateTime start, LocalDateTime end, int bookingId) {
+            this.start = start;
+            this.end = end;
+            this.bookingId = bookingId;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection interface for booking
+ * with fields needed to show it with item
+ */
+public interface BookingItemView {
+    int getId();
+
+    int getItemId();
+
+    int getBookerId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Projection interface with item and booker
+ * needed to create booking
+ */
+public interface BookingPartiesView {
+    Item getItem();
+
+    User getBooker();
+}
@@ -1,44 +1,254 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for bookings table
  * with queryDSL support
  */
-public interface BookingRepository extends JpaRepository<Booking, Integer>, QuerydslPredicateExecutor<Booking> {
+public interface BookingRepository extends JpaRepository<Booking, Integer>, QuerydslPredicateExecutor<Booking>,
+        BookingRepositoryCustom {
     /**
-     * Query to database to get list of all bookings
-     * for item with start before now
-     * sorted
+     * Query to database to get last booking for item
+     * not rejected, with the latest start before now,
+     * including archived bookings, read backwards
+     * by index on item and start time of both tables
      *
      * @param itemId of item
-     * @param start  time limit
-     * @param sort   sorted type
-     * @return list of bookings
+     * @param now    time limit
+     * @return last booking
      */
     @Transactional
-    List<Booking> findByItem_IdAndStartIsBefore(int itemId, LocalDateTime start, Sort sort);
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings_history AS b " +
+            "WHERE b.item_id = :itemId AND b.start_time < :now AND b.state <> 'REJECTED' " +
+            "ORDER BY b.start_time DESC, b.booking_id DESC " +
+            "LIMIT 1", nativeQuery = true)
+    Optional<BookingItemView> findLastBooking(@Param("itemId") int itemId, @Param("now") LocalDateTime now);
 
     /**
-     * Query to database to get list of all bookings
-     * for item with start after now
-     * sorted
+     * Query to database to get next booking for item
+     * not rejected, with start after now
      *
      * @param itemId of item
-     * @param start  time limit
-     * @param sort   sorted type
+     * @param now    time limit
+     * @return next booking
+     */
+    @Transactional
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId AND b.start_time > :now AND b.state <> 'REJECTED' " +
+            "ORDER BY b.start_time, b.booking_id " +
+            "LIMIT 1", nativeQuery = true)
+    Optional<BookingItemView> findNextBooking(@Param("itemId") int itemId, @Param("now") LocalDateTime now);
+
+    /**
+     * Query to database to get last bookings for several items
+     * one row per item, not rejected, with the latest start before now,
+     * including archived bookings
+     *
+     * @param itemIds of items
+     * @param now     time limit
+     * @return list of last bookings
+     */
+    @Transactional
+    @Query(value = "SELECT lb.booking_id AS id, lb.item_id AS itemId, lb.user_id AS bookerId, " +
+            "lb.start_time AS startTime, lb.end_time AS endTime " +
+            "FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.start_time DESC, b.booking_id DESC) AS rn " +
+            "FROM bookings_history AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.start_time < :now AND b.state <> 'REJECTED') AS lb " +
+            "WHERE lb.rn = 1", nativeQuery = true)
+    List<BookingItemView> findLastBookings(@Param("itemIds") Collection<Integer> itemIds,
+                                           @Param("now") LocalDateTime now);
+
+    /**
+     * Query to database to get next bookings for several items
+     * one row per item, not rejected, with start after now
+     *
+     * @param itemIds of items
+     * @param now     time limit
+     * @return list of next bookings
+     */
+    @Transactional
+    @Query(value = "SELECT nb.booking_id AS id, nb.item_id AS itemId, nb.user_id AS bookerId, " +
+            "nb.start_time AS startTime, nb.end_time AS endTime " +
+            "FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.start_time, b.booking_id) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.start_time > :now AND b.state <> 'REJECTED') AS nb " +
+            "WHERE nb.rn = 1", nativeQuery = true)
+    List<BookingItemView> findNextBookings(@Param("itemIds") Collection<Integer> itemIds,
+                                           @Param("now") LocalDateTime now);
+
+    /**
+     * Query to database to get approved bookings for item
+     * not finished before the time limit,
+     * partitioned bookings are bounded by start time
+     *
+     * @param itemId of item
+     * @param now    time limit
+     * @return list of bookings sorted by start time
+     */
+    default List<BookingItemView> findApprovedBookings(int itemId, LocalDateTime now) {
+        return isPartitioned()
+                ? findApprovedBookings(itemId, now, now.minus(Booking.MAX_DURATION))
+                : findAllApprovedBookings(itemId, now);
+    }
+
+    /**
+     * Query to database to get approved bookings for item
+     * not finished before the time limit
+     * with any start time
+     *
+     * @param itemId of item
+     * @param now    time limit
+     * @return list of bookings sorted by start time
+     */
+    @Transactional
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId AND b.end_time > :now AND b.state = 'APPROVED' " +
+            "ORDER BY b.start_time, b.booking_id", nativeQuery = true)
+    List<BookingItemView> findAllApprovedBookings(@Param("itemId") int itemId, @Param("now") LocalDateTime now);
+
+    /**
+     * Query to database to get approved bookings for item
+     * not finished before the time limit,
+     * started after the lower bound to scan only recent partitions
+     *
+     * @param itemId       of item
+     * @param now          time limit
+     * @param startedAfter lower bound of start time
+     * @return list of bookings sorted by start time
+     */
+    @Transactional
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId AND b.start_time > :startedAfter AND b.end_time > :now " +
+            "AND b.state = 'APPROVED' " +
+            "ORDER BY b.start_time, b.booking_id", nativeQuery = true)
+    List<BookingItemView> findApprovedBookings(@Param("itemId") int itemId, @Param("now") LocalDateTime now,
+                                               @Param("startedAfter") LocalDateTime startedAfter);
+
+    /**
+     * Query to database to count approved bookings for item
+     * overlapping the interval, except the given booking
+     *
+     * @param itemId    of item
+     * @param bookingId of booking to skip, 0 for new booking
+     * @param start     of interval
+     * @param end       of interval
+     * @return number of overlapping bookings
+     */
+    @Transactional
+    @Query("SELECT COUNT(b) FROM Booking AS b " +
+            "WHERE b.item.id = :itemId AND b.id <> :bookingId AND b.start < :end AND b.end > :start " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED")
+    long countApprovedOverlaps(@Param("itemId") int itemId, @Param("bookingId") int bookingId,
+                               @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Query to database to get item and booker
+     * for new booking with one statement
+     *
+     * @param itemId   of item
+     * @param bookerId of booker
+     * @return item and booker, empty if any of them not found
+     */
+    @Transactional
+    @Query("SELECT i AS item, u AS booker FROM Item AS i, User AS u WHERE i.id = :itemId AND u.id = :bookerId")
+    Optional<BookingPartiesView> findBookingParties(@Param("itemId") int itemId, @Param("bookerId") int bookerId);
+
+    /**
+     * Query to database to get item id of booking
+     *
+     * @param bookingId of booking
+     * @return item id
+     */
+    @Transactional
+    @Query("SELECT b.item.id FROM Booking AS b WHERE b.id = :bookingId")
+    Optional<Integer> findItemId(@Param("bookingId") int bookingId);
+
+    /**
+     * Query to database to get bookings by ids
+     * with items and bookers
+     *
+     * @param bookingIds of bookings
      * @return list of bookings
      */
     @Transactional
-    List<Booking> findByItem_IdAndStartIsAfter(int itemId, LocalDateTime start, Sort sort);
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.id IN :bookingIds")
+    List<Booking> findAllWithItemByIdIn(@Param("bookingIds") Collection<Integer> bookingIds);
 
+    /**
+     * Query to database to get bookings for item
+     * not rejected, overlapping the interval,
+     * partitioned bookings are bounded by start time
+     *
+     * @param itemId of item
+     * @param from   start of interval
+     * @param to     end of interval
+     * @return list of bookings sorted by start time
+     */
+    default List<BookingItemView> findBusyBookings(int itemId, LocalDateTime from, LocalDateTime to) {
+        return isPartitioned()
+                ? findBusyBookings(itemId, from, to, from.minus(Booking.MAX_DURATION))
+                : findAllBusyBookings(itemId, from, to);
+    }
 
+    /**
+     * Query to database to get bookings for item
+     * not rejected, overlapping the interval
+     * with any start time
+     *
+     * @param itemId of item
+     * @param from   start of interval
+     * @param to     end of interval
+     * @return list of bookings sorted by start time
+     */
+    @Transactional
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId AND b.start_time < :to AND b.end_time > :from AND b.state <> 'REJECTED' " +
+            "ORDER BY b.start_time, b.booking_id", nativeQuery = true)
+    List<BookingItemView> findAllBusyBookings(@Param("itemId") int itemId, @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    /**
+     * Query to database to get bookings for item
+     * not rejected, overlapping the interval,
+     * started after the lower bound to scan only partitions of the interval
+     *
+     * @param itemId       of item
+     * @param from         start of interval
+     * @param to           end of interval
+     * @param startedAfter lower bound of start time
+     * @return list of bookings sorted by start time
+     */
+    @Transactional
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.user_id AS bookerId, " +
+            "b.start_time AS startTime, b.end_time AS endTime " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId AND b.start_time > :startedAfter AND b.start_time < :to " +
+            "AND b.end_time > :from AND b.state <> 'REJECTED' " +
+            "ORDER BY b.start_time, b.booking_id", nativeQuery = true)
+    List<BookingItemView> findBusyBookings(@Param("itemId") int itemId, @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("startedAfter") LocalDateTime startedAfter);
 }
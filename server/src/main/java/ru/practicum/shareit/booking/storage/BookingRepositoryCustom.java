@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.querydsl.core.types.Predicate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for bookings table
+ * with queries not supported by queryDSL executor
+ */
+public interface BookingRepositoryCustom {
+    /**
+     * Query to database to get first bookings
+     * sorted by start time and id descending,
+     * without count query
+     *
+     * @param predicate to filter bookings
+     * @param limit     max number of bookings
+     * @return list of bookings
+     */
+    List<Booking> findFirst(Predicate predicate, int limit);
+
+    /**
+     * Query to database to update status of waiting bookings
+     * with one JDBC batch
+     *
+     * @param bookingIds of bookings
+     * @param status     new status
+     * @return for every booking true if it was waiting and is updated
+     */
+    boolean[] updateWaitingStatus(List<Integer> bookingIds, BookingStatus status);
+
+    /**
+     * Query to database to lock rows of items
+     * for approval of their bookings until the end of transaction
+     *
+     * @param itemIds of items
+     */
+    void lockItems(Collection<Integer> itemIds);
+
+    /**
+     * Query to database to move one batch of bookings
+     * ended before the time limit to the archive
+     *
+     * @param endedBefore time limit
+     * @param batchSize   max number of bookings to move
+     * @return number of moved bookings
+     */
+    int archiveEndedBefore(LocalDateTime endedBefore, int batchSize);
+
+    /**
+     * Query to database to check that bookings table
+     * is partitioned by start time
+     *
+     * @return true for partitioned PostgreSQL table
+     */
+    boolean isPartitioned();
+
+    /**
+     * Query to database to create partition of bookings
+     * for the month if it does not exist,
+     * bookings of the month are moved to it from the default partition
+     *
+     * @param month any day of the month
+     * @return true if partition is created
+     */
+    boolean createPartition(LocalDate month);
+}
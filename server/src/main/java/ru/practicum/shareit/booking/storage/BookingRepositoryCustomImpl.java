@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBooking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class with queries to bookings table
+ * not supported by queryDSL executor
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String UPDATE_WAITING_STATUS = "UPDATE bookings " +
+            "SET state = ?, version = version + 1 " +
+            "WHERE booking_id = ? AND state = 'WAITING'";
+
+    private static final String SELECT_IN_STATE = "SELECT booking_id FROM bookings " +
+            "WHERE booking_id IN (:bookingIds) AND state = :state";
+
+    private static final String LOCK_ITEMS = "SELECT item_id FROM items " +
+            "WHERE item_id IN (:itemIds) " +
+            "ORDER BY item_id " +
+            "FOR UPDATE";
+
+    /**
+     * Lock not conflicting with foreign keys of bookings created for items
+     */
+    private static final String LOCK_ITEMS_POSTGRESQL = "SELECT item_id FROM items " +
+            "WHERE item_id IN (:itemIds) " +
+            "ORDER BY item_id " +
+            "FOR NO KEY UPDATE";
+
+    private static final String SELECT_ENDED = "SELECT booking_id FROM bookings " +
+            "WHERE end_time < ? " +
+            "ORDER BY end_time, booking_id " +
+            "LIMIT ? " +
+            "FOR UPDATE";
+
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO bookings_archive " +
+            "(booking_id, start_time, end_time, item_id, user_id, owner_id, state, version) " +
+            "SELECT booking_id, start_time, end_time, item_id, user_id, owner_id, state, version " +
+            "FROM bookings " +
+            "WHERE booking_id IN (:bookingIds)";
+
+    private static final String DELETE_ARCHIVED = "DELETE FROM bookings WHERE booking_id IN (:bookingIds)";
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String IS_PARTITIONED = "SELECT EXISTS " +
+            "(SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('bookings'))";
+
+    private static final String CREATE_PARTITION = "SELECT create_bookings_partition(?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private volatile Boolean postgresql;
+
+    private volatile Boolean partitioned;
+
+    @Autowired
+    public BookingRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Query to database to get first bookings
+     * sorted by start time and id descending,
+     * without count query
+     *
+     * @param predicate to filter bookings
+     * @param limit     max number of bookings
+     * @return list of bookings
+     */
+    @Override
+    @Transactional
+    public List<Booking> findFirst(Predicate predicate, int limit) {
+        QBooking booking = QBooking.booking;
+        return new JPAQuery<Booking>(entityManager)
+                .select(booking)
+                .from(booking)
+                .leftJoin(booking.item).fetchJoin()
+                .leftJoin(booking.booker).fetchJoin()
+                .where(predicate)
+                .orderBy(booking.start.desc(), booking.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Query to database to update status of waiting bookings
+     * with one JDBC batch. Bookings with unknown update count
+     * are checked to have the new status
+     *
+     * @param bookingIds of bookings
+     * @param status     new status
+     * @return for every booking true if it was waiting and is updated
+     */
+    @Override
+    @Transactional
+    public boolean[] updateWaitingStatus(List<Integer> bookingIds, BookingStatus status) {
+        if (bookingIds.isEmpty()) {
+            return new boolean[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_WAITING_STATUS, bookingIds, bookingIds.size(),
+                (statement, bookingId) -> {
+                    statement.setString(1, status.name());
+                    statement.setInt(2, bookingId);
+                });
+
+        boolean[] updated = new boolean[bookingIds.size()];
+        List<Integer> unknownIds = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            updated[i] = counts[0][i] > 0;
+            if (counts[0][i] == Statement.SUCCESS_NO_INFO) {        // Driver executed batch without counts
+                unknownIds.add(bookingIds.get(i));
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            Set<Integer> inStatus = new HashSet<>(namedParameterJdbcTemplate.queryForList(SELECT_IN_STATE,
+                    Map.of("bookingIds", unknownIds, "state", status.name()), Integer.class));
+            for (int i = 0; i < updated.length; i++) {
+                updated[i] |= (counts[0][i] == Statement.SUCCESS_NO_INFO) && inStatus.contains(bookingIds.get(i));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Query to database to lock rows of items
+     * for approval of their bookings until the end of transaction,
+     * rows are locked in order of ids
+     *
+     * @param itemIds of items
+     */
+    @Override
+    @Transactional
+    public void lockItems(Collection<Integer> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.queryForList(isPostgresql() ? LOCK_ITEMS_POSTGRESQL : LOCK_ITEMS,
+                Map.of("itemIds", itemIds), Integer.class);
+    }
+
+    /**
+     * Query to database to move one batch of bookings
+     * ended before the time limit to the archive,
+     * the earliest ended first by index on end time,
+     * moved bookings are locked until the end of transaction
+     *
+     * @param endedBefore time limit
+     * @param batchSize   max number of bookings to move
+     * @return number of moved bookings
+     */
+    @Override
+    @Transactional
+    public int archiveEndedBefore(LocalDateTime endedBefore, int batchSize) {
+        List<Integer> bookingIds = jdbcTemplate.queryForList(SELECT_ENDED, Integer.class,
+                endedBefore, batchSize);
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<Integer>> parameters = Map.of("bookingIds", bookingIds);
+        namedParameterJdbcTemplate.update(COPY_TO_ARCHIVE, parameters);
+        return namedParameterJdbcTemplate.update(DELETE_ARCHIVED, parameters);
+    }
+
+    /**
+     * Query to database to check that bookings table
+     * is partitioned by start time,
+     * other databases than PostgreSQL have a single table.
+     * Table is partitioned by migrations on start only,
+     * so the result is queried once
+     *
+     * @return true for partitioned PostgreSQL table
+     */
+    @Override
+    @Transactional
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = isPostgresql()
+                    && Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class));
+        }
+        return partitioned;
+    }
+
+    /**
+     * Query to database to create partition of bookings
+     * for the month if it does not exist,
+     * bookings of the month are moved to it from the default partition
+     *
+     * @param month any day of the month
+     * @return true if partition is created
+     */
+    @Override
+    @Transactional
+    public boolean createPartition(LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(CREATE_PARTITION, Boolean.class, month));
+    }
+
+    /**
+     * Check that database is PostgreSQL, checked once
+     *
+     * @return true for PostgreSQL
+     */
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            postgresql = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())));
+        }
+        return postgresql;
+    }
+}
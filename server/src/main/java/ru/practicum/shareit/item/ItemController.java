@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -51,18 +55,25 @@ public class ItemController {
 
     /**
      * GET all items of the user
+     * with cursor of the next page in header
+     * if cursor is requested
      *
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of all user's items
      */
     @GetMapping()
-    public List<ItemBookingDto> getAllItems(
+    public ResponseEntity<List<ItemBookingDto>> getAllItems(
             @RequestParam(value = "from", required = false) Integer from,
             @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return itemService.getAllItems(from, size, userId);
+        if (cursor != null) {
+            return itemService.getAllItemsByCursor(cursor, size, userId).toResponseEntity();
+        }
+        return ResponseEntity.ok(itemService.getAllItems(from, size, userId));
     }
 
     /**
@@ -83,20 +94,27 @@ public class ItemController {
 
     /**
      * GET search request handler
+     * with cursor of the next page in header
+     * if cursor is requested
      *
      * @param text   to search
      * @param from   index of the first element
      * @param size   number of elements to return
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of found items
      */
     @GetMapping(value = "/search")
-    public List<ItemDto> search(
+    public ResponseEntity<List<ItemDto>> search(
             @RequestParam(value = "text") String text,
             @RequestParam(value = "from", required = false) Integer from,
             @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return itemService.searchItems(text, from, size, userId);
+        if (cursor != null) {
+            return itemService.searchItemsByCursor(text, cursor, size, userId).toResponseEntity();
+        }
+        return ResponseEntity.ok(itemService.searchItems(text, from, size, userId));
     }
 
 
@@ -114,4 +132,22 @@ public class ItemController {
                                  @RequestHeader(value = "X-Sharer-User-Id") String userId) {
         return itemService.addComment(commentDto, itemId, userId);
     }
+
+    /**
+     * GET free intervals of the item
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @param userId user id
+     * @return free intervals
+     */
+    @GetMapping(value = "/{itemId}/availability")
+    public List<IntervalDto> getAvailability(
+            @PathVariable int itemId,
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "X-Sharer-User-Id") String userId) {
+        return itemService.getAvailability(itemId, from, to, userId);
+    }
 }
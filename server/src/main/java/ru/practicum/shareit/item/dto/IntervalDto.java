@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO class for time interval of item's calendar
+ */
+@Data
+@Builder
+public class IntervalDto {
+    @DateTimeFormat
+    private LocalDateTime start;
+    @DateTimeFormat
+    private LocalDateTime end;
+}
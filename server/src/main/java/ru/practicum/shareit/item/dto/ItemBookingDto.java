@@ -10,7 +10,7 @@ import java.util.List;
  * DTO class for item get requests to show last and next bookings
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ItemBookingDto {
     private int id;
     private String name;
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Item search with PostgreSQL full-text index
+ * ranked by relevance, with prefix match for every word.
+ * Falls back to substring match on other databases
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "fulltext")
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    private final ItemSearchEngine fallback;
+
+    @Autowired
+    public FullTextItemSearchEngine(ItemRepository itemRepository, DataSource dataSource) {
+        this.itemRepository = itemRepository;
+        this.fallback = isPostgreSql(dataSource) ? null : new LikeItemSearchEngine(itemRepository);
+        if (fallback != null) {
+            log.warn("Full-text search needs PostgreSQL, substring search is used instead");
+        }
+    }
+
+    /**
+     * Search for available items
+     * matching all words of text
+     *
+     * @param text     to search
+     * @param pageable page parameters
+     * @return list of found items, most relevant first
+     */
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (fallback != null) {
+            return fallback.search(text, pageable);
+        }
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemRepository.searchFullText(query, pageable);
+    }
+
+    /**
+     * Search for available items
+     * matching all words of text
+     * with id after the given one
+     *
+     * @param text    to search
+     * @param afterId id of the last item of previous page
+     * @param limit   max number of items
+     * @return list of found items sorted by id
+     */
+    @Override
+    public List<Item> searchAfter(String text, int afterId, int limit) {
+        if (fallback != null) {
+            return fallback.searchAfter(text, afterId, limit);
+        }
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemRepository.searchFullTextAfter(query, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Transform text to tsquery
+     * with prefix match for every word
+     *
+     * @param text to transform
+     * @return tsquery text
+     */
+    static String toTsQuery(String text) {
+        return ItemTokenizer.tokenize(text).stream()
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * Check database of the data source
+     *
+     * @param dataSource to check
+     * @return true for PostgreSQL
+     */
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(productName);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of items
+ * with sorted posting lists of item ids for every term
+ */
+public class InvertedIndex {
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+
+    private final Map<Integer, String[]> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace terms of the item
+     *
+     * @param itemId of item
+     * @param terms  of item, empty to remove item
+     */
+    public void put(int itemId, List<String> terms) {
+        String[] distinctTerms = terms.stream().distinct().toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeTerms(itemId);
+            if (distinctTerms.length == 0) {
+                return;
+            }
+            for (String term : distinctTerms) {
+                postings.computeIfAbsent(term, key -> new PostingList()).add(itemId);
+            }
+            documents.put(itemId, distinctTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add terms of many items at once
+     * skipping items which were already put
+     *
+     * @param items terms by item id
+     * @param skip  item ids to skip
+     */
+    public void putAll(Map<Integer, List<String>> items, Set<Integer> skip) {
+        lock.writeLock().lock();
+        try {
+            items.forEach((itemId, terms) -> {
+                if (!skip.contains(itemId)) {
+                    put(itemId, terms);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find items containing all words
+     * as prefixes of their terms
+     *
+     * @param words to search
+     * @return sorted ids of found items
+     */
+    public int[] search(List<String> words) {
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (String word : words.stream().distinct().toArray(String[]::new)) {
+                int[] matches = matchPrefix(word);
+                result = (result == null) ? matches : intersect(result, matches);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get number of indexed items
+     *
+     * @return number of items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeTerms(int itemId) {
+        String[] oldTerms = documents.remove(itemId);
+        if (oldTerms == null) {
+            return;
+        }
+        for (String term : oldTerms) {
+            PostingList postingList = postings.get(term);
+            postingList.remove(itemId);
+            if (postingList.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Union of posting lists of all terms with the prefix
+     */
+    private int[] matchPrefix(String prefix) {
+        int[] result = new int[0];
+        for (PostingList postingList : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            result = union(result, postingList.ids, postingList.size);
+        }
+        return result;
+    }
+
+    private static int[] union(int[] first, int[] second, int secondSize) {
+        int[] result = new int[first.length + secondSize];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while ((i < first.length) && (j < secondSize)) {
+            if (first[i] < second[j]) {
+                result[k++] = first[i++];
+            } else if (first[i] > second[j]) {
+                result[k++] = second[j++];
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        while (i < first.length) {
+            result[k++] = first[i++];
+        }
+        while (j < secondSize) {
+            result[k++] = second[j++];
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while ((i < first.length) && (j < second.length)) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Sorted growable list of item ids
+     */
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if ((size == 0) || (ids[size - 1] < id)) {      // New items have the largest ids
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
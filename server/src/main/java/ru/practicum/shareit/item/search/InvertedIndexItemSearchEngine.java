@@ -0,0 +1,226 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Item search with in-memory inverted index of available items.
+ * Every word of the text matches as a prefix of item's terms,
+ * items must match all words.
+ * Index is rebuilt in background on start,
+ * substring search is used until it is ready
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "index")
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+
+    private final ItemSearchEngine fallback;
+
+    private final ExecutorService rebuildExecutor;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    private final Set<Integer> savedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public InvertedIndexItemSearchEngine(ItemRepository itemRepository,
+                                         @Value("${shareit.search.index.rebuild-threads:2}") int rebuildThreads) {
+        this.itemRepository = itemRepository;
+        this.fallback = new LikeItemSearchEngine(itemRepository);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.rebuildExecutor = Executors.newFixedThreadPool(rebuildThreads, task -> {
+            Thread thread = new Thread(task, "item-index-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Search for available items
+     * and load only items of the page
+     *
+     * @param text     to search
+     * @param pageable page parameters
+     * @return list of found items sorted by id
+     */
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (!ready) {
+            return fallback.search(text, pageable);
+        }
+        int[] ids = index.search(ItemTokenizer.tokenize(text));
+
+        int fromIndex = 0;
+        int toIndex = ids.length;
+        if (pageable.isPaged()) {
+            fromIndex = (int) Math.min(pageable.getOffset(), ids.length);
+            toIndex = Math.min(fromIndex + pageable.getPageSize(), ids.length);
+        }
+        return loadItems(ids, fromIndex, toIndex);
+    }
+
+    /**
+     * Search for available items
+     * with id after the given one
+     * and load only items of the page
+     *
+     * @param text    to search
+     * @param afterId id of the last item of previous page
+     * @param limit   max number of items
+     * @return list of found items sorted by id
+     */
+    @Override
+    public List<Item> searchAfter(String text, int afterId, int limit) {
+        if (!ready) {
+            return fallback.searchAfter(text, afterId, limit);
+        }
+        int[] ids = index.search(ItemTokenizer.tokenize(text));
+
+        int fromIndex = Arrays.binarySearch(ids, afterId);
+        fromIndex = (fromIndex >= 0) ? fromIndex + 1 : -fromIndex - 1;
+        return loadItems(ids, fromIndex, Math.min(fromIndex + limit, ids.length));
+    }
+
+    /**
+     * Update item in the index
+     *
+     * @param item saved item
+     */
+    @Override
+    public void onItemSaved(Item item) {
+        if (rebuilding) {
+            savedDuringRebuild.add(item.getId());
+        }
+        index.put(item.getId(), toTerms(item));
+    }
+
+    /**
+     * Start rebuild of the index when application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild index from the items storage
+     * loading batches of items in parallel on the rebuild threads
+     *
+     * @return future completed when index is ready
+     */
+    public CompletableFuture<Void> rebuild() {
+        long startTime = System.currentTimeMillis();
+        rebuilding = true;
+        return CompletableFuture.supplyAsync(() -> itemRepository.findTopByOrderByIdDesc().map(Item::getId)
+                        .orElse(0), rebuildExecutor)
+                .thenCompose(maxId -> CompletableFuture.allOf(IntStream.rangeClosed(0, maxId / REBUILD_BATCH_SIZE)
+                        .mapToObj(batch -> CompletableFuture.runAsync(() -> indexBatch(batch), rebuildExecutor))
+                        .toArray(CompletableFuture[]::new)))
+                .whenComplete((result, e) -> {
+                    rebuilding = false;
+                    savedDuringRebuild.clear();
+                    if (e != null) {
+                        log.error("Item search index is not rebuilt, substring search is used", e);
+                        return;
+                    }
+                    ready = true;
+                    log.info("Item search index is rebuilt: {} items in {} ms", index.size(),
+                            System.currentTimeMillis() - startTime);
+                });
+    }
+
+    /**
+     * Stop rebuild threads
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Put batch of items to the index
+     * skipping items saved during rebuild
+     *
+     * @param batch number of batch of ids
+     */
+    private void indexBatch(int batch) {
+        Map<Integer, List<String>> terms = new HashMap<>();
+        itemRepository.findByIdBetween(batch * REBUILD_BATCH_SIZE, (batch + 1) * REBUILD_BATCH_SIZE - 1)
+                .forEach(item -> terms.put(item.getId(), toTerms(item)));
+        index.putAll(terms, savedDuringRebuild);
+    }
+
+    /**
+     * Get search terms of item
+     *
+     * @param item to index
+     * @return terms of item, empty for not available item
+     */
+    private static List<String> toTerms(Item item) {
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            return List.of();
+        }
+        return ItemTokenizer.tokenize(item.getName() + " " + item.getDescription());
+    }
+
+    /**
+     * Load items of the page
+     * keeping order of ids
+     *
+     * @param ids       sorted ids of found items
+     * @param fromIndex index of the first id of the page
+     * @param toIndex   index after the last id of the page
+     * @return list of items
+     */
+    private List<Item> loadItems(int[] ids, int fromIndex, int toIndex) {
+        List<Integer> pageIds = Arrays.stream(ids, fromIndex, toIndex).boxed().collect(Collectors.toList());
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Item> items = itemRepository.findAllById(pageIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
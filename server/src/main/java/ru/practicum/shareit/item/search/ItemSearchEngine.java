@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Interface for item search backends
+ * selected by shareit.search.mode property
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Search for available items
+     * by name or description
+     *
+     * @param text     to search
+     * @param pageable page parameters
+     * @return list of found items
+     */
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Search for available items
+     * with id after the given one, sorted by id
+     *
+     * @param text    to search
+     * @param afterId id of the last item of previous page
+     * @param limit   max number of items
+     * @return list of found items
+     */
+    List<Item> searchAfter(String text, int afterId, int limit);
+
+    /**
+     * Update search data of the item
+     * after it was created or updated
+     *
+     * @param item saved item
+     */
+    default void onItemSaved(Item item) {
+    }
+}
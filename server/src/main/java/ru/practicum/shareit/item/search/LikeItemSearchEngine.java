@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Item search with case-insensitive substring match
+ * on name and description
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.mode", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Autowired
+    public LikeItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Search for available items
+     * with name or description containing text
+     *
+     * @param text     to search
+     * @param pageable page parameters
+     * @return list of found items
+     */
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        BooleanExpression byIsAvailable = QItem.item.isAvailable.isTrue();
+        BooleanExpression byName = QItem.item.name.containsIgnoreCase(text);
+        BooleanExpression byDescription = QItem.item.description.containsIgnoreCase(text);
+
+        if (pageable.isUnpaged()) {
+            return (List<Item>) itemRepository.findAll(byIsAvailable.and(byName.or(byDescription)));
+        }
+        return itemRepository.findAll(byIsAvailable.and(byName.or(byDescription)), pageable).getContent();
+    }
+
+    /**
+     * Search for available items
+     * with name or description containing text
+     * and id after the given one
+     *
+     * @param text    to search
+     * @param afterId id of the last item of previous page
+     * @param limit   max number of items
+     * @return list of found items sorted by id
+     */
+    @Override
+    public List<Item> searchAfter(String text, int afterId, int limit) {
+        return itemRepository.searchAfter(toContainsPattern(text), afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Transform text to LIKE pattern matching strings containing it,
+     * with \ as escape character of wildcards in text
+     *
+     * @param text to transform
+     * @return LIKE pattern
+     */
+    static String toContainsPattern(String text) {
+        return "%" + text.replaceAll("[\\\\%_]", "\\\\$0") + "%";
+    }
+}
@@ -2,8 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.util.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -39,6 +42,17 @@ public interface ItemService {
      */
     List<ItemBookingDto> getAllItems(Integer from, Integer size, String userId);
 
+    /**
+     * Get page of user's items
+     * with keyset pagination
+     *
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of owner
+     * @return page of user's items
+     */
+    CursorPage<ItemBookingDto> getAllItemsByCursor(String cursor, Integer size, String userId);
+
     /**
      * Update item with validation
      *
@@ -60,6 +74,18 @@ public interface ItemService {
      */
     List<ItemDto> searchItems(String text, Integer from, Integer size, String userId);
 
+    /**
+     * Search for items
+     * with keyset pagination
+     *
+     * @param text   to search
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of user
+     * @return page of found items
+     */
+    CursorPage<ItemDto> searchItemsByCursor(String text, String cursor, Integer size, String userId);
+
     /**
      * Add comment to the item
      *
@@ -69,4 +95,15 @@ public interface ItemService {
      * @return comment
      */
     CommentDto addComment(CommentDto commentDto, int itemId, String userId);
+
+    /**
+     * Get free intervals of the item
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @param userId of user
+     * @return free intervals sorted by start time
+     */
+    List<IntervalDto> getAvailability(int itemId, LocalDateTime from, LocalDateTime to, String userId);
 }
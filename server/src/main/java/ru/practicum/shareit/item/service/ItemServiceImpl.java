@@ -3,32 +3,42 @@ package ru.practicum.shareit.item.service;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
-import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBookingHistory;
+import ru.practicum.shareit.booking.storage.BookingHistoryRepository;
+import ru.practicum.shareit.booking.storage.BookingItemView;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemCache;
+import ru.practicum.shareit.item.storage.ItemCalendarCache;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.AfterCommit;
+import ru.practicum.shareit.util.Cursor;
+import ru.practicum.shareit.util.CursorPage;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 
@@ -44,14 +54,29 @@ public class ItemServiceImpl implements ItemService {
 
     private final BookingRepository bookingRepository;
 
+    private final BookingHistoryRepository bookingHistoryRepository;
+
     private final CommentRepository commentRepository;
 
+    private final ItemCache itemCache;
+
+    private final ItemCalendarCache itemCalendarCache;
+
+    private final ItemSearchEngine itemSearchEngine;
+
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository, UserService userService, BookingRepository bookingRepository, CommentRepository commentRepository) {
+    public ItemServiceImpl(ItemRepository itemRepository, UserService userService, BookingRepository bookingRepository,
+                           BookingHistoryRepository bookingHistoryRepository, CommentRepository commentRepository,
+                           ItemCache itemCache, ItemCalendarCache itemCalendarCache,
+                           ItemSearchEngine itemSearchEngine) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.bookingRepository = bookingRepository;
+        this.bookingHistoryRepository = bookingHistoryRepository;
         this.commentRepository = commentRepository;
+        this.itemCache = itemCache;
+        this.itemCalendarCache = itemCalendarCache;
+        this.itemSearchEngine = itemSearchEngine;
     }
 
 
@@ -66,12 +91,15 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto createItem(ItemDto itemDto, String userId) {
         validateUserId(userId);
         itemDto.setOwnerId(Integer.parseInt(userId));
-        return ItemMapper.toItemDto(itemRepository.save(ItemMapper.toItem(itemDto)));
+        Item createdItem = itemRepository.save(ItemMapper.toItem(itemDto));
+        itemSearchEngine.onItemSaved(createdItem);
+        return ItemMapper.toItemDto(createdItem);
     }
 
     /**
      * Get item by id with validation
      * add booking info
+     * from the item cache
      *
      * @param itemId of item
      * @param userId of owner
@@ -80,18 +108,18 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ItemBookingDto getItemById(int itemId, String userId) {
         validateUserId(userId);
-        ItemBookingDto itemBookingDto = ItemMapper.toItemBookingDto(itemRepository.findById(itemId).orElseThrow());
-        if (Integer.parseInt(userId) == itemBookingDto.getOwnerId()) {
-            itemBookingDto.setLastBooking(getLastBookingForItem(itemId));
-            itemBookingDto.setNextBooking(getNextBookingForItem(itemId));
+        ItemBookingDto itemBookingDto = itemCache.get(itemId, this::loadItem);
+        if (Integer.parseInt(userId) != itemBookingDto.getOwnerId()) {    // Booking info only for owner
+            itemBookingDto.setLastBooking(null);
+            itemBookingDto.setNextBooking(null);
         }
-        itemBookingDto.setComments(CommentMapper.toListCommentDto(commentRepository.findByItem_Id(itemId)));
         return itemBookingDto;
     }
 
     /**
      * Get list of all user's items
      * add booking info for all items
+     * loaded for the whole page at once
      *
      * @param from   index of the first element
      * @param size   number of elements to return
@@ -99,6 +127,7 @@ public class ItemServiceImpl implements ItemService {
      * @return list of user's items
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ItemBookingDto> getAllItems(Integer from, Integer size, String userId) {
         validateUserId(userId);
 
@@ -113,15 +142,31 @@ public class ItemServiceImpl implements ItemService {
                     .collect(Collectors.toList());
         }
 
-        return ItemMapper.toListItemBookingDto(itemList)
-                .stream()
-                .peek(itemBookingDto -> {
-                    itemBookingDto.setLastBooking(getLastBookingForItem(itemBookingDto.getId()));
-                    itemBookingDto.setNextBooking(getNextBookingForItem(itemBookingDto.getId()));
-                    itemBookingDto.setComments(CommentMapper.toListCommentDto(
-                            commentRepository.findByItem_Id(itemBookingDto.getId())));
-                })
-                .collect(Collectors.toList());
+        return toListItemBookingDto(itemList);
+    }
+
+    /**
+     * Get page of user's items
+     * sorted by id
+     * add booking info for all items
+     *
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of owner
+     * @return page of user's items
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemBookingDto> getAllItemsByCursor(String cursor, Integer size, String userId) {
+        validateUserId(userId);
+
+        Cursor after = Cursor.decode(cursor);
+        int pageSize = Cursor.size(size);
+        List<Item> itemList = itemRepository.findByOwnerIdAndIdGreaterThanOrderById(Integer.parseInt(userId),
+                after != null ? after.getId() : 0, PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(itemList, pageSize, item -> new Cursor(null, item.getId()))
+                .map(this::toListItemBookingDto);
     }
 
     /**
@@ -139,7 +184,10 @@ public class ItemServiceImpl implements ItemService {
         itemDto.setOwnerId(Integer.parseInt(userId));
         Item itemFromRep = itemRepository.findById(itemId).orElseThrow();
         itemFromRep = itemFromRep.compare(ItemMapper.toItem(itemDto));
-        return ItemMapper.toItemDto(itemRepository.save(itemFromRep));
+        Item updatedItem = itemRepository.save(itemFromRep);
+        AfterCommit.run(() -> itemCache.evict(itemId));
+        itemSearchEngine.onItemSaved(updatedItem);
+        return ItemMapper.toItemDto(updatedItem);
     }
 
     /**
@@ -156,26 +204,43 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> searchItems(String text, Integer from, Integer size, String userId) {
         validateUserId(userId);
 
-        List<Item> searchItems = new ArrayList<>();
         if (text.isEmpty()) {
-            return ItemMapper.toListItemDto(searchItems);
+            return new ArrayList<>();
         }
 
-        BooleanExpression byIsAvailable = QItem.item.isAvailable.isTrue();
-        BooleanExpression byName = QItem.item.name.containsIgnoreCase(text);
-        BooleanExpression byDescription = QItem.item.description.containsIgnoreCase(text);
+        Pageable page = Pageable.unpaged();
+        if ((from != null) && (size != null)) {
+            page = PageRequest.of(from / size, size);
+        }
 
+        return ItemMapper.toListItemDto(itemSearchEngine.search(text, page));
+    }
 
-        if ((from == null) || (size == null)) {
-            searchItems = (List<Item>) itemRepository.findAll(byIsAvailable.and(byName.or(byDescription)));
-        } else {
-            PageRequest page = PageRequest.of(from / size, size);
-            searchItems = itemRepository.findAll(byIsAvailable.and(byName.or(byDescription)), page)
-                    .stream()
-                    .collect(Collectors.toList());
+    /**
+     * Search for items
+     * sorted by id
+     *
+     * @param text   to search
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of user
+     * @return page of found items
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemDto> searchItemsByCursor(String text, String cursor, Integer size, String userId) {
+        validateUserId(userId);
+
+        Cursor after = Cursor.decode(cursor);
+        if (text.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
         }
 
-        return ItemMapper.toListItemDto(searchItems);
+        int pageSize = Cursor.size(size);
+        List<Item> itemList = itemSearchEngine.searchAfter(text, after != null ? after.getId() : 0, pageSize + 1);
+
+        return CursorPage.of(itemList, pageSize, item -> new Cursor(null, item.getId()))
+                .map(ItemMapper::toListItemDto);
     }
 
 
@@ -191,14 +256,13 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto addComment(CommentDto commentDto, int itemId, String userId) {
         validateUserId(userId);
 
-        BooleanExpression byBooker = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.item.id.eq(itemId)
-                .and(QBooking.booking.state.ne(BookingState.REJECTED)
-                        .and(QBooking.booking.end.before(LocalDateTime.now())));
+        QBookingHistory booking = QBookingHistory.bookingHistory;     // Finished bookings may be archived
+        BooleanExpression byBooker = booking.booker.id.eq(Integer.parseInt(userId));
+        BooleanExpression byState = booking.item.id.eq(itemId)
+                .and(booking.status.ne(BookingStatus.REJECTED)
+                        .and(booking.end.before(LocalDateTime.now())));
 
-        List<Booking> bookings = (List<Booking>) bookingRepository.findAll(byBooker.and(byState));
-
-        if (bookings.isEmpty()) {
+        if (!bookingHistoryRepository.exists(byBooker.and(byState))) {
             throw new ValidationException("No booking for this item/user");
         }
         commentDto.setCreated(LocalDateTime.now());
@@ -206,7 +270,51 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(ItemMapper.toItem(getItemById(itemId, userId)));
         comment.setAuthor(UserMapper.toUser(userService.getUserById(Integer.parseInt(userId))));
 
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        CommentDto addedComment = CommentMapper.toCommentDto(commentRepository.save(comment));
+        AfterCommit.run(() -> itemCache.evict(itemId));
+        return addedComment;
+    }
+
+    /**
+     * Get free intervals of the item
+     * between busy intervals of approved and waiting bookings,
+     * calendar from now on is cached
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @param userId of user
+     * @return free intervals sorted by start time
+     */
+    @Override
+    public List<IntervalDto> getAvailability(int itemId, LocalDateTime from, LocalDateTime to, String userId) {
+        validateUserId(userId);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Wrong period!");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<IntervalDto> busyIntervals = from.isBefore(now)
+                ? loadBusyIntervals(itemId, from, to)
+                : itemCalendarCache.get(itemId, id -> loadBusyIntervals(id, now, Cursor.MAX_TIME));
+
+        List<IntervalDto> freeIntervals = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (IntervalDto busy : busyIntervals) {
+            if (!busy.getStart().isBefore(to)) {
+                break;
+            }
+            if (busy.getStart().isAfter(freeStart)) {
+                freeIntervals.add(IntervalDto.builder().start(freeStart).end(busy.getStart()).build());
+            }
+            if (busy.getEnd().isAfter(freeStart)) {
+                freeStart = busy.getEnd();
+            }
+        }
+        if (freeStart.isBefore(to)) {
+            freeIntervals.add(IntervalDto.builder().start(freeStart).end(to).build());
+        }
+        return freeIntervals;
     }
 
     /**
@@ -217,7 +325,117 @@ public class ItemServiceImpl implements ItemService {
     private void validateUserId(String userId) {
         int id = Integer.parseInt(userId);
 
-        userService.getUserById(id);    // Validation of user id
+        userService.checkUserExists(id);    // Validation of user id
+    }
+
+    /**
+     * Load busy intervals of the item
+     * merging overlapping bookings
+     *
+     * @param itemId of item
+     * @param from   start of period
+     * @param to     end of period
+     * @return busy intervals sorted by start time
+     */
+    private List<IntervalDto> loadBusyIntervals(int itemId, LocalDateTime from, LocalDateTime to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NoSuchElementException("Item with id " + itemId + " not found!");
+        }
+
+        List<IntervalDto> busyIntervals = new ArrayList<>();
+        IntervalDto last = null;
+        for (BookingItemView booking : bookingRepository.findBusyBookings(itemId, from, to)) {
+            if ((last != null) && !booking.getStartTime().isAfter(last.getEnd())) {
+                if (booking.getEndTime().isAfter(last.getEnd())) {
+                    last.setEnd(booking.getEndTime());
+                }
+            } else {
+                last = IntervalDto.builder().start(booking.getStartTime()).end(booking.getEndTime()).build();
+                busyIntervals.add(last);
+            }
+        }
+        return busyIntervals;
+    }
+
+    /**
+     * Transform items to items with booking info
+     * loaded for all items at once
+     *
+     * @param itemList list of items
+     * @return list of items with bookings and comments
+     */
+    private List<ItemBookingDto> toListItemBookingDto(List<Item> itemList) {
+        List<ItemBookingDto> itemBookingDtoList = ItemMapper.toListItemBookingDto(itemList);
+        if (itemBookingDtoList.isEmpty()) {
+            return itemBookingDtoList;
+        }
+
+        List<Integer> itemIds = itemBookingDtoList.stream()
+                .map(ItemBookingDto::getId)
+                .collect(Collectors.toList());
+        Map<Integer, BookingItemDto> lastBookings = getLastBookingsForItems(itemIds);
+        Map<Integer, BookingItemDto> nextBookings = getNextBookingsForItems(itemIds);
+        Map<Integer, List<CommentDto>> comments = commentRepository.findByItem_IdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+
+        itemBookingDtoList.forEach(itemBookingDto -> {
+            itemBookingDto.setLastBooking(lastBookings.get(itemBookingDto.getId()));
+            itemBookingDto.setNextBooking(nextBookings.get(itemBookingDto.getId()));
+            itemBookingDto.setComments(comments.getOrDefault(itemBookingDto.getId(), new ArrayList<>()));
+        });
+        return itemBookingDtoList;
+    }
+
+    /**
+     * Load item with booking info and comments
+     * to put it to the item cache
+     *
+     * @param itemId of item
+     * @return item
+     */
+    private ItemBookingDto loadItem(int itemId) {
+        ItemBookingDto itemBookingDto = ItemMapper.toItemBookingDto(itemRepository.findById(itemId).orElseThrow());
+        itemBookingDto.setLastBooking(getLastBookingForItem(itemId));
+        itemBookingDto.setNextBooking(getNextBookingForItem(itemId));
+        itemBookingDto.setComments(CommentMapper.toListCommentDto(commentRepository.findByItem_Id(itemId)));
+        return itemBookingDto;
+    }
+
+    /**
+     * Get last bookings for several items
+     * with one query for all of them
+     *
+     * @param itemIds of items
+     * @return map of last bookings by item id
+     */
+    private Map<Integer, BookingItemDto> getLastBookingsForItems(List<Integer> itemIds) {
+        return toBookingByItem(bookingRepository.findLastBookings(itemIds, LocalDateTime.now()));
+    }
+
+    /**
+     * Get next bookings for several items
+     * with one query for all of them
+     *
+     * @param itemIds of items
+     * @return map of next bookings by item id
+     */
+    private Map<Integer, BookingItemDto> getNextBookingsForItems(List<Integer> itemIds) {
+        return toBookingByItem(bookingRepository.findNextBookings(itemIds, LocalDateTime.now()));
+    }
+
+    /**
+     * Group bookings by item
+     * one booking for each item
+     *
+     * @param bookingList list of bookings
+     * @return map of bookings by item id
+     */
+    private Map<Integer, BookingItemDto> toBookingByItem(List<BookingItemView> bookingList) {
+        Map<Integer, BookingItemDto> bookings = new HashMap<>();
+        bookingList.forEach(booking -> bookings.put(booking.getItemId(), BookingMapper.toBookingItemDto(booking)));
+        return bookings;
     }
 
     /**
@@ -227,15 +445,9 @@ public class ItemServiceImpl implements ItemService {
      * @return last booking
      */
     private BookingItemDto getLastBookingForItem(int itemId) {
-        List<Booking> bookingList = bookingRepository.findByItem_IdAndStartIsBefore(itemId, LocalDateTime.now(),
-                Sort.by(Sort.Direction.DESC, "end"));
-        if (!bookingList.isEmpty()) {
-            return bookingList.stream()
-                    .findFirst()
-                    .map(BookingMapper::toBookingItemDto)
-                    .orElse(null);
-        }
-        return null;
+        return bookingRepository.findLastBooking(itemId, LocalDateTime.now())
+                .map(BookingMapper::toBookingItemDto)
+                .orElse(null);
     }
 
     /**
@@ -245,15 +457,8 @@ public class ItemServiceImpl implements ItemService {
      * @return next booking
      */
     private BookingItemDto getNextBookingForItem(int itemId) {
-        List<Booking> bookingList = bookingRepository.findByItem_IdAndStartIsAfter(itemId, LocalDateTime.now(),
-                Sort.by(Sort.Direction.ASC, "start"));
-        if (!bookingList.isEmpty()) {
-            return bookingList.stream()
-                    .filter(booking -> !booking.getState().equals(BookingState.REJECTED))
-                    .findFirst()
-                    .map(BookingMapper::toBookingItemDto)
-                    .orElse(null);
-        }
-        return null;
+        return bookingRepository.findNextBooking(itemId, LocalDateTime.now())
+                .map(BookingMapper::toBookingItemDto)
+                .orElse(null);
     }
 }
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import ru.practicum.shareit.item.model.Comment;
 
 import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,4 +23,25 @@ public interface CommentRepository extends JpaRepository<Comment, Integer>, Quer
      */
     @Transactional
     List<Comment> findByItem_Id(int itemId);
+
+    /**
+     * Query to database to get all comments for several items
+     * with items and authors in one select
+     *
+     * @param itemIds of items
+     * @return list of all items' comments
+     */
+    @Transactional
+    @EntityGraph(attributePaths = {"item", "author"})
+    List<Comment> findByItem_IdIn(Collection<Integer> itemIds);
+
+    /**
+     * Query to database to get ids of items commented by the user
+     *
+     * @param authorId of comments' author
+     * @return list of items' ids
+     */
+    @Transactional
+    @Query("select distinct c.item.id from Comment c where c.author.id = ?1")
+    List<Integer> findItemIdsByAuthorId(int authorId);
 }
@@ -0,0 +1,188 @@
+package ru.practicum.shareit.item.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded LRU cache of item snapshots
+ * (item, comments, last and next booking)
+ * invalidated by every change of the item, its comments or bookings
+ * and by changes of comments' authors. Snapshot lives not longer than TTL
+ */
+@Component
+public class ItemCache implements MeterBinder {
+
+    private final Map<Integer, Entry> entries;
+
+    /**
+     * Tokens of loads in flight by item, removed on eviction of the item
+     */
+    private final Map<Integer, Object> loads = new HashMap<>();
+
+    private final Duration ttl;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ItemCache(@Value("${shareit.item-cache.max-size:10000}") int maxSize,
+                     @Value("${shareit.item-cache.ttl:10m}") Duration ttl) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get item snapshot from the cache
+     * or load it and put to the cache
+     *
+     * @param itemId of item
+     * @param loader to load snapshot on miss
+     * @return copy of item snapshot
+     */
+    public ItemBookingDto get(int itemId, IntFunction<ItemBookingDto> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(itemId);
+            if ((entry != null) && entry.isExpired()) {
+                entries.remove(itemId);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.snapshot.toBuilder().build();
+        }
+
+        misses.incrementAndGet();
+        Object load = new Object();
+        synchronized (entries) {
+            loads.put(itemId, load);
+        }
+        ItemBookingDto snapshot;
+        try {
+            snapshot = loader.apply(itemId);
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                loads.remove(itemId, load);
+            }
+            throw e;
+        }
+        synchronized (entries) {
+            if (loads.remove(itemId, load)) {   // Skip snapshots loaded during invalidation of the item
+                entries.put(itemId, new Entry(snapshot, LocalDateTime.now().plus(ttl)));
+            }
+        }
+        return snapshot.toBuilder().build();
+    }
+
+    /**
+     * Remove item snapshot from the cache
+     *
+     * @param itemId of item
+     */
+    public void evict(int itemId) {
+        synchronized (entries) {
+            loads.remove(itemId);
+            entries.remove(itemId);
+        }
+    }
+
+    /**
+     * Remove snapshots of several items from the cache
+     *
+     * @param itemIds of items
+     */
+    public void evictAll(Collection<Integer> itemIds) {
+        synchronized (entries) {
+            for (Integer itemId : itemIds) {
+                loads.remove(itemId);
+                entries.remove(itemId);
+            }
+        }
+    }
+
+    /**
+     * Get number of cached snapshots
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "items", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "items", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", "items")
+                .register(registry);
+        Gauge.builder("cache.size", this, ItemCache::size)
+                .tags("cache", "items")
+                .register(registry);
+    }
+
+    /**
+     * Cached snapshot
+     * valid until the start of the next booking,
+     * when last and next bookings of the item change, or until TTL ends
+     */
+    private static class Entry {
+        private final ItemBookingDto snapshot;
+        private final LocalDateTime validUntil;
+
+        private Entry(ItemBookingDto snapshot, LocalDateTime expiresAt) {
+            this.snapshot = snapshot;
+            this.validUntil = (snapshot.getNextBooking() != null)
+                    && snapshot.getNextBooking().getStart().isBefore(expiresAt)
+                    ? snapshot.getNextBooking().getStart() : expiresAt;
+        }
+
+        private boolean isExpired() {
+            return !LocalDateTime.now().isBefore(validUntil);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.IntervalDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded LRU cache of item calendars:
+ * busy intervals of item sorted by start time,
+ * invalidated by every change of the item's bookings
+ */
+@Component
+public class ItemCalendarCache implements MeterBinder {
+
+    private final Map<Integer, List<IntervalDto>> entries;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ItemCalendarCache(@Value("${shareit.item-calendar-cache.max-size:10000}") int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<IntervalDto>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get calendar of item from the cache
+     * or load it and put to the cache
+     *
+     * @param itemId of item
+     * @param loader to load busy intervals on miss
+     * @return busy intervals of item, not to be changed
+     */
+    public List<IntervalDto> get(int itemId, IntFunction<List<IntervalDto>> loader) {
+        List<IntervalDto> calendar;
+        synchronized (entries) {
+            calendar = entries.get(itemId);
+        }
+        if (calendar != null) {
+            hits.incrementAndGet();
+            return calendar;
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        calendar = List.copyOf(loader.apply(itemId));
+        synchronized (entries) {
+            if (loadGeneration == generation.get()) {   // Skip calendars loaded during invalidation
+                entries.put(itemId, calendar);
+            }
+        }
+        return calendar;
+    }
+
+    /**
+     * Remove calendar of item from the cache
+     *
+     * @param itemId of item
+     */
+    public void evict(int itemId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(itemId);
+        }
+    }
+
+    /**
+     * Get number of cached calendars
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "item-calendars", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "item-calendars", "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", this, ItemCalendarCache::size)
+                .tags("cache", "item-calendars")
+                .register(registry);
+    }
+}
@@ -3,11 +3,15 @@ package ru.practicum.shareit.item.storage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
 import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for items table
@@ -32,4 +36,94 @@ public interface ItemRepository extends JpaRepository<Item, Integer>, QuerydslPr
      */
     @Transactional
     Page<Item> findByOwnerId(int ownerId, Pageable pageable);
+
+    /**
+     * Query to database to get user's items
+     * with id after the given one, sorted by id
+     *
+     * @param ownerId  of item
+     * @param afterId  id of the last item of previous page
+     * @param pageable page size
+     * @return list of user's items
+     */
+    @Transactional
+    List<Item> findByOwnerIdAndIdGreaterThanOrderById(int ownerId, int afterId, Pageable pageable);
+
+    /**
+     * Query to database to get items for several requests
+     *
+     * @param requestIds of requests
+     * @return list of items
+     */
+    @Transactional
+    List<Item> findByRequestIdIn(Collection<Integer> requestIds);
+
+    /**
+     * Query to database to get item with the largest id
+     *
+     * @return last item
+     */
+    @Transactional
+    Optional<Item> findTopByOrderByIdDesc();
+
+    /**
+     * Query to database to get items with ids in range
+     *
+     * @param fromId first id, inclusive
+     * @param toId   last id, inclusive
+     * @return list of items
+     */
+    @Transactional
+    List<Item> findByIdBetween(int fromId, int toId);
+
+    /**
+     * Query to database to search available items
+     * with PostgreSQL full-text index
+     * sorted by relevance
+     *
+     * @param query    tsquery text
+     * @param pageable page parameters
+     * @return list of found items
+     */
+    @Transactional
+    @Query(value = "SELECT i.* FROM items AS i " +
+            "WHERE i.is_available AND i.search_vector @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('simple', :query)) DESC, i.item_id",
+            nativeQuery = true)
+    List<Item> searchFullText(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Query to database to search available items
+     * with name or description matching LIKE pattern with \ as escape character,
+     * with id after the given one, sorted by id
+     *
+     * @param pattern  to match
+     * @param afterId  id of the last item of previous page
+     * @param pageable page size
+     * @return list of found items
+     */
+    @Transactional
+    @Query("SELECT i FROM Item AS i " +
+            "WHERE i.isAvailable = true AND i.id > :afterId " +
+            "AND (UPPER(i.name) LIKE UPPER(:pattern) ESCAPE '\\' " +
+            "OR UPPER(i.description) LIKE UPPER(:pattern) ESCAPE '\\') " +
+            "ORDER BY i.id")
+    List<Item> searchAfter(@Param("pattern") String pattern, @Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Query to database to search available items
+     * with PostgreSQL full-text index,
+     * with id after the given one, sorted by id
+     *
+     * @param query    tsquery text
+     * @param afterId  id of the last item of previous page
+     * @param pageable page size
+     * @return list of found items
+     */
+    @Transactional
+    @Query(value = "SELECT i.* FROM items AS i " +
+            "WHERE i.is_available AND i.search_vector @@ to_tsquery('simple', :query) AND i.item_id > :afterId " +
+            "ORDER BY i.item_id",
+            nativeQuery = true)
+    List<Item> searchFullTextAfter(@Param("query") String query, @Param("afterId") int afterId, Pageable pageable);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.service.RequestService;
@@ -62,18 +63,25 @@ public class RequestController {
 
     /**
      * GET all requests with pagination
+     * with cursor of the next page in header
+     * if cursor is requested
      *
      * @param from   index of the first element
      * @param size   of the page
+     * @param cursor of the page, empty for the first page
      * @param userId user id
      * @return list of all requests
      */
     @GetMapping(value = "/all")
-    public List<RequestDto> getAllRequests(
+    public ResponseEntity<List<RequestDto>> getAllRequests(
             @RequestParam(value = "from", required = false) Integer from,
             @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestHeader(value = "X-Sharer-User-Id") String userId) {
-        return requestService.getAllRequests(from, size, userId);
+        if (cursor != null) {
+            return requestService.getAllRequestsByCursor(cursor, size, userId).toResponseEntity();
+        }
+        return ResponseEntity.ok(requestService.getAllRequests(from, size, userId));
     }
 
 }
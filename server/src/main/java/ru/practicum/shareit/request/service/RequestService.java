@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.util.CursorPage;
 
 import java.util.List;
 
@@ -29,7 +30,7 @@ public interface RequestService {
 
 
     /**
-     * Get list of all requests
+     * Get list of requests of other users
      *
      * @param from   index of the first element
      * @param size   number of elements to return
@@ -38,6 +39,17 @@ public interface RequestService {
      */
     List<RequestDto> getAllRequests(Integer from, Integer size, String userId);
 
+    /**
+     * Get page of requests of other users
+     * with keyset pagination
+     *
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of user
+     * @return page with requests
+     */
+    CursorPage<RequestDto> getAllRequestsByCursor(String cursor, Integer size, String userId);
+
 
     /**
      * Get request by id
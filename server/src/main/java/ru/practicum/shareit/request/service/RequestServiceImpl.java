@@ -6,8 +6,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.RequestMapper;
 import ru.practicum.shareit.request.dto.RequestDto;
@@ -15,9 +15,14 @@ import ru.practicum.shareit.request.model.QRequest;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.storage.RequestRepository;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.Cursor;
+import ru.practicum.shareit.util.CursorPage;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +31,8 @@ import java.util.stream.Collectors;
 @Service
 public class RequestServiceImpl implements RequestService {
 
+    private static final int UNPAGED_LIMIT = 1000;
+
     private final RequestRepository requestRepository;
     private final ItemRepository itemRepository;
     private final UserService userService;
@@ -69,18 +76,13 @@ public class RequestServiceImpl implements RequestService {
                 Sort.by(sort, "created"));
 
 
-        return RequestMapper.toListRequestDto(requests)
-                .stream()
-                .peek(requestDto -> {
-                    BooleanExpression byRequestId = QItem.item.requestId.eq(requestDto.getId());
-                    List<Item> items = (List<Item>) itemRepository.findAll(byRequestId);
-                    requestDto.setItems(ItemMapper.toListItemRequestDto(items));
-                })
-                .collect(Collectors.toList());
+        return addItems(RequestMapper.toListRequestDto(requests));
     }
 
     /**
-     * Get list of all requests
+     * Get list of requests of other users
+     * sorted by created time descending,
+     * the newest 1000 without pagination
      *
      * @param from   index of the first element
      * @param size   number of elements to return
@@ -90,23 +92,42 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public List<RequestDto> getAllRequests(Integer from, Integer size, String userId) {
         validateUserId(userId);
-        if ((from == null) || (size == null)) {
-            return RequestMapper.toListRequestDto(requestRepository.findAll());
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "created").and(Sort.by(Sort.Direction.DESC, "id"));
+        PageRequest page = PageRequest.of(0, UNPAGED_LIMIT, sort);     // Without pagination only the newest
+        if ((from != null) && (size != null)) {
+            page = PageRequest.of(from / size, size, sort);
         }
-        Sort.Direction sort = Sort.Direction.DESC;
-        PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "created"));
 
+        return addItems(RequestMapper.toListRequestDto(requestRepository.findByRequesterNot(Integer.parseInt(userId),
+                page).getContent()));
+    }
 
-        return requestRepository.findAll(page)
-                .stream()
-                .map(RequestMapper::toRequestDto)
-                .filter(requestDto -> requestDto.getRequester() != Integer.parseInt(userId))
-                .peek(requestDto -> {
-                    BooleanExpression byRequestId = QItem.item.requestId.eq(requestDto.getId());
-                    List<Item> items = (List<Item>) itemRepository.findAll(byRequestId);
-                    requestDto.setItems(ItemMapper.toListItemRequestDto(items));
-                })
-                .collect(Collectors.toList());
+    /**
+     * Get page of requests of other users
+     * sorted by created time descending
+     *
+     * @param cursor of the page, empty for the first page
+     * @param size   number of elements to return
+     * @param userId of user
+     * @return page with requests
+     */
+    @Override
+    public CursorPage<RequestDto> getAllRequestsByCursor(String cursor, Integer size, String userId) {
+        validateUserId(userId);
+
+        Cursor before = Cursor.decode(cursor);
+        if (before == null) {
+            before = new Cursor(Cursor.MAX_TIME, Integer.MAX_VALUE);
+        } else if (before.getTime() == null) {
+            throw new ValidationException("Wrong cursor!");
+        }
+        int pageSize = Cursor.size(size);
+        List<Request> requests = requestRepository.findOthersBefore(Integer.parseInt(userId), before.getTime(),
+                before.getId(), PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.of(requests, pageSize, request -> new Cursor(request.getCreated(), request.getId()))
+                .map(requestList -> addItems(RequestMapper.toListRequestDto(requestList)));
     }
 
     /**
@@ -121,10 +142,7 @@ public class RequestServiceImpl implements RequestService {
         validateUserId(userId);
         RequestDto requestDto = RequestMapper.toRequestDto(requestRepository.findById(requestId).orElseThrow());
 
-        BooleanExpression byRequestId = QItem.item.requestId.eq(requestId);
-        List<Item> items = (List<Item>) itemRepository.findAll(byRequestId);
-
-        requestDto.setItems(ItemMapper.toListItemRequestDto(items));
+        addItems(List.of(requestDto));
         return requestDto;
     }
 
@@ -135,6 +153,31 @@ public class RequestServiceImpl implements RequestService {
      */
     private void validateUserId(String userId) {
         int id = Integer.parseInt(userId);
-        userService.getUserById(id);    // Validation of user id in database
+        userService.checkUserExists(id);    // Validation of user id in database
+    }
+
+    /**
+     * Add items to requests
+     * with one query for all of them
+     *
+     * @param requestDtoList list of requests
+     * @return list of requests with items
+     */
+    private List<RequestDto> addItems(List<RequestDto> requestDtoList) {
+        if (requestDtoList.isEmpty()) {
+            return requestDtoList;
+        }
+
+        List<Integer> requestIds = requestDtoList.stream()
+                .map(RequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Integer, List<ItemRequestDto>> items = itemRepository.findByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(Item::getRequestId,
+                        Collectors.mapping(ItemMapper::toItemRequestDto, Collectors.toList())));
+
+        requestDtoList.forEach(requestDto ->
+                requestDto.setItems(items.getOrDefault(requestDto.getId(), new ArrayList<>())));
+        return requestDtoList;
     }
 }
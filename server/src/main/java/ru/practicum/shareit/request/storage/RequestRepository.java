@@ -1,12 +1,51 @@
 package ru.practicum.shareit.request.storage;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.Request;
 
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository interface for requests table
  * with queryDSL support
  */
 public interface RequestRepository extends JpaRepository<Request, Integer>, QuerydslPredicateExecutor<Request> {
+    /**
+     * Query to database to get requests of other users
+     * without count query
+     *
+     * @param requester id of user to skip
+     * @param pageable  page parameters
+     * @return slice of requests
+     */
+    @Transactional
+    Slice<Request> findByRequesterNot(int requester, Pageable pageable);
+
+    /**
+     * Query to database to get requests of other users
+     * created before the given request,
+     * sorted by created time and id descending
+     *
+     * @param requester     id of user to skip
+     * @param beforeCreated created time of the last request of previous page
+     * @param beforeId      id of the last request of previous page
+     * @param pageable      page size
+     * @return list of requests
+     */
+    @Transactional
+    @Query("SELECT r FROM Request AS r " +
+            "WHERE r.requester <> :requester " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<Request> findOthersBefore(@Param("requester") int requester,
+                                   @Param("created") LocalDateTime beforeCreated,
+                                   @Param("id") int beforeId,
+                                   Pageable pageable);
 }
@@ -40,6 +40,13 @@ public interface UserService {
      */
     UserDto getUserById(int id);
 
+    /**
+     * Check that user exists
+     *
+     * @param id of user
+     */
+    void checkUserExists(int id);
+
     /**
      * Get list with all users
      *
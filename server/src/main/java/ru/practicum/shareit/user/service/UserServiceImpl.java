@@ -1,14 +1,22 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemCache;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserExistenceCache;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.AfterCommit;
+import ru.practicum.shareit.util.exceptions.ResourceConflictException;
 
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Class service for operations with users storage
@@ -18,9 +26,19 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
+    private final UserExistenceCache userExistenceCache;
+
+    private final CommentRepository commentRepository;
+
+    private final ItemCache itemCache;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserExistenceCache userExistenceCache,
+                           CommentRepository commentRepository, ItemCache itemCache) {
         this.userRepository = userRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.commentRepository = commentRepository;
+        this.itemCache = itemCache;
     }
 
     /**
@@ -31,11 +49,14 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDto createUser(UserDto user) {
-        return UserMapper.toUserDto(userRepository.save(UserMapper.toUser(user)));
+        UserDto createdUser = UserMapper.toUserDto(userRepository.save(UserMapper.toUser(user)));
+        userExistenceCache.putExisting(createdUser.getId());
+        return createdUser;
     }
 
     /**
-     * Update user with validation
+     * Update user with validation,
+     * cached items with comments of the user are evicted on change of name
      *
      * @param user to update
      * @return updated user
@@ -45,18 +66,32 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(UserDto user, int userId) {
         user.setId(userId);
         User userFromRep = userRepository.findById(userId).orElseThrow();
+        String oldName = userFromRep.getName();
         userFromRep = userFromRep.compare(UserMapper.toUser(user));
-        return UserMapper.toUserDto(userRepository.save(userFromRep));
+        UserDto updatedUser = UserMapper.toUserDto(userRepository.save(userFromRep));
+        if (!Objects.equals(oldName, updatedUser.getName())) {
+            List<Integer> itemIds = commentRepository.findItemIdsByAuthorId(userId);
+            AfterCommit.run(() -> itemCache.evictAll(itemIds));
+        }
+        return updatedUser;
     }
 
     /**
-     * Delete user by id
+     * Delete user by id in one transaction
+     * if user has no items, bookings or requests
      *
      * @param id of user
      */
     @Override
+    @Transactional
     public void deleteUser(int id) {
-        userRepository.deleteById(id);
+        try {
+            userRepository.deleteById(id);
+            userRepository.flush();     // Check foreign keys now, not on commit
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceConflictException("User with id " + id + " has items, bookings or requests!");
+        }
+        AfterCommit.run(() -> userExistenceCache.putDeleted(id));
     }
 
     /**
@@ -70,6 +105,19 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(userRepository.findById(id).orElseThrow());
     }
 
+    /**
+     * Check that user exists
+     * with the user existence cache
+     *
+     * @param id of user
+     */
+    @Override
+    public void checkUserExists(int id) {
+        if (!userExistenceCache.exists(id, userRepository::existsById)) {
+            throw new NoSuchElementException("User with id " + id + " not found!");
+        }
+    }
+
     /**
      * Get list with all users
      *
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.user.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Bounded LRU cache of user existence
+ * with positive and negative entries and their own TTLs
+ */
+@Component
+public class UserExistenceCache implements MeterBinder {
+
+    private final Map<Integer, Entry> entries;
+
+    private final long positiveTtlNanos;
+
+    private final long negativeTtlNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserExistenceCache(@Value("${shareit.user-cache.max-size:100000}") int maxSize,
+                              @Value("${shareit.user-cache.positive-ttl:10m}") Duration positiveTtl,
+                              @Value("${shareit.user-cache.negative-ttl:10s}") Duration negativeTtl) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.positiveTtlNanos = positiveTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    /**
+     * Check if user exists
+     * with database check on miss
+     *
+     * @param userId of user
+     * @param loader to check user in database
+     * @return true if user exists
+     */
+    public boolean exists(int userId, IntPredicate loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+        }
+        long now = System.nanoTime();
+        if ((entry != null) && (entry.expiresAt - now > 0)) {
+            hits.incrementAndGet();
+            return entry.exists;
+        }
+
+        misses.incrementAndGet();
+        boolean exists = loader.test(userId);
+        synchronized (entries) {
+            if (entries.get(userId) == entry) {     // Keep entries put by creation or deletion during the check
+                entries.put(userId, new Entry(exists, now + (exists ? positiveTtlNanos : negativeTtlNanos)));
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Mark user as existing
+     *
+     * @param userId of created user
+     */
+    public void putExisting(int userId) {
+        synchronized (entries) {
+            entries.put(userId, new Entry(true, System.nanoTime() + positiveTtlNanos));
+        }
+    }
+
+    /**
+     * Mark user as not existing
+     *
+     * @param userId of deleted user
+     */
+    public void putDeleted(int userId) {
+        synchronized (entries) {
+            entries.put(userId, new Entry(false, System.nanoTime() + negativeTtlNanos));
+        }
+    }
+
+    /**
+     * Get number of cached entries
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "users", "result", "hit")
+                .description("User checks answered without a database query")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "users", "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", this, UserExistenceCache::size)
+                .tags("cache", "users")
+                .register(registry);
+    }
+
+    /**
+     * Cached existence of user
+     */
+    private static class Entry {
+        private final boolean exists;
+        private final long expiresAt;
+
+        private Entry(boolean exists, long expiresAt) {
+            this.exists = exists;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
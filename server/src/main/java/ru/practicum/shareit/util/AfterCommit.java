@@ -0,0 +1,32 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Actions after commit of the current transaction,
+ * like eviction of cached data changed by it:
+ * evicted before commit, data could be loaded again
+ * from the old state by other requests and cached
+ */
+public class AfterCommit {
+    /**
+     * Run action after commit of the current transaction,
+     * action is not run if it is rolled back,
+     * without transaction action is run now
+     *
+     * @param action to run
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
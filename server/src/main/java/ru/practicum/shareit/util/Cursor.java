@@ -0,0 +1,72 @@
+package ru.practicum.shareit.util;
+
+import lombok.Data;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Class for opaque cursor of keyset pagination
+ * with sort time and id of the last element of the page
+ */
+@Data
+public class Cursor {
+    public static final int DEFAULT_SIZE = 20;
+
+    /**
+     * Sort time before all stored times
+     * for the first page sorted by time descending
+     */
+    public static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime time;
+    private final int id;
+
+    /**
+     * Transform cursor to opaque string
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String value = (time != null ? time.truncatedTo(ChronoUnit.MICROS).toString() : "")   // Database precision
+                + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Transform opaque string to cursor
+     *
+     * @param cursor encoded cursor
+     * @return cursor, null for empty string (the first page)
+     */
+    public static Cursor decode(String cursor) {
+        if ((cursor == null) || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            String time = value.substring(0, separator);
+            return new Cursor(time.isEmpty() ? null : LocalDateTime.parse(time),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Wrong cursor!");
+        }
+    }
+
+    /**
+     * Get page size for keyset pagination
+     *
+     * @param size requested size
+     * @return size or default size
+     */
+    public static int size(Integer size) {
+        return size != null ? size : DEFAULT_SIZE;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.util;
+
+import lombok.Data;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Class for page of keyset pagination
+ * with cursor of the next page
+ */
+@Data
+public class CursorPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    /**
+     * Make page from elements loaded with one extra element
+     *
+     * @param elements list of size + 1 elements at most
+     * @param size     of the page
+     * @param toCursor to make cursor from the last element of the page
+     * @return page
+     */
+    public static <T> CursorPage<T> of(List<T> elements, int size, Function<T, Cursor> toCursor) {
+        if (elements.size() <= size) {
+            return new CursorPage<>(elements, null);
+        }
+        List<T> content = elements.subList(0, size);
+        return new CursorPage<>(content, toCursor.apply(content.get(size - 1)).encode());
+    }
+
+    /**
+     * Transform page elements keeping the next cursor
+     *
+     * @param mapper to transform elements
+     * @return transformed page
+     */
+    public <R> CursorPage<R> map(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(content), nextCursor);
+    }
+
+    /**
+     * Make response with page elements
+     * and the next cursor in header
+     *
+     * @return response
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(content);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class to check on startup
+ * that indexes used by queries exist in database
+ */
+@Slf4j
+@Component
+public class IndexChecker {
+
+    private static final Map<String, List<String>> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("items", List.of("idx_items_owner_id", "idx_items_request_id"));
+        EXPECTED_INDEXES.put("bookings", List.of("idx_bookings_item_id_start_time",
+                "idx_bookings_user_id_start_time", "idx_bookings_owner_id_start_time"));
+        EXPECTED_INDEXES.put("bookings_archive", List.of("idx_bookings_archive_item_id_start_time",
+                "idx_bookings_archive_user_id_start_time", "idx_bookings_archive_owner_id_start_time"));
+        EXPECTED_INDEXES.put("comments", List.of("idx_comments_item_id"));
+        EXPECTED_INDEXES.put("requests", List.of("idx_requests_requestor_id_created",
+                "idx_requests_created_request_id"));
+    }
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public IndexChecker(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Check indexes after application start
+     * and report missing ones
+     *
+     * @return list of missing indexes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public List<String> checkIndexes() {
+        List<String> missingIndexes;
+        try {
+            missingIndexes = JdbcUtils.extractDatabaseMetaData(dataSource, IndexChecker::findMissingIndexes);
+        } catch (MetaDataAccessException e) {
+            log.warn("Cannot check database indexes: {}", e.getMessage());
+            return List.of();
+        }
+
+        if (missingIndexes.isEmpty()) {
+            log.info("All database indexes are present");
+        } else {
+            log.warn("Missing database indexes: {}", missingIndexes);
+        }
+        return missingIndexes;
+    }
+
+    /**
+     * Find expected indexes not present in database
+     *
+     * @param metaData of database
+     * @return list of missing indexes
+     */
+    private static List<String> findMissingIndexes(DatabaseMetaData metaData) throws SQLException {
+        List<String> missingIndexes = new ArrayList<>();
+        for (Map.Entry<String, List<String>> table : EXPECTED_INDEXES.entrySet()) {
+            Set<String> indexes = getIndexes(metaData, table.getKey());
+            table.getValue().stream()
+                    .filter(index -> !indexes.contains(index))
+                    .forEach(missingIndexes::add);
+        }
+        return missingIndexes;
+    }
+
+    /**
+     * Get names of table's indexes
+     *
+     * @param metaData of database
+     * @param table    name
+     * @return set of index names in lower case
+     */
+    private static Set<String> getIndexes(DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (resultSet.next()) {
+                String index = resultSet.getString("INDEX_NAME");
+                if (index != null) {
+                    indexes.add(index.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+/**
+ * Filter adding ETag to responses of single users, items and requests,
+ * conditional GET with matching If-None-Match gets 304 without body
+ */
+@Component
+public class ResourceEtagFilter extends ShallowEtagHeaderFilter {
+
+    private static final Pattern RESOURCE_PATH = Pattern.compile("/(users|items|requests)/\\d+");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RESOURCE_PATH.matcher(request.getRequestURI()).matches();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by keys:
+ * operations with one key are serialized,
+ * operations with different keys mostly run in parallel
+ */
+public class StripedLock {
+
+    private final Lock[] locks;
+
+    private final int mask;
+
+    /**
+     * Create locks
+     *
+     * @param stripes number of locks, rounded up to power of two
+     */
+    public StripedLock(int stripes) {
+        int size = (stripes <= 1) ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get lock of the key
+     *
+     * @param key to lock
+     * @return lock shared by keys of the same stripe
+     */
+    public Lock get(int key) {
+        return locks[stripe(key)];
+    }
+
+    /**
+     * Get locks of several keys
+     * in the same order for any keys,
+     * so threads taking them one by one do not deadlock
+     *
+     * @param keys to lock
+     * @return distinct locks sorted by stripe
+     */
+    public List<Lock> getAll(Collection<Integer> keys) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        keys.forEach(key -> stripes.add(stripe(key)));
+        List<Lock> result = new ArrayList<>(stripes.size());
+        stripes.forEach(stripe -> result.add(locks[stripe]));
+        return result;
+    }
+
+    /**
+     * Get number of locks
+     *
+     * @return number of locks
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    private int stripe(int key) {
+        int hash = key * 0x9E3779B9;        // Spread sequential ids over stripes
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
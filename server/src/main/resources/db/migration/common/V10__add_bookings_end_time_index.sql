@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_end_time_booking_id ON bookings (end_time, booking_id);
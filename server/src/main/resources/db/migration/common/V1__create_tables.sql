@@ -1,10 +1,3 @@
-DROP TABLE IF EXISTS users,
-		items,
-		bookings,
-		comments,
-		requests;
-
-
 CREATE TABLE IF NOT EXISTS users(
     user_id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY NOT NULL,
     name varchar(320) NOT NULL,
@@ -43,4 +36,4 @@ CREATE TABLE IF NOT EXISTS requests(
     description varchar(1000) NOT NULL,
     requestor_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
@@ -0,0 +1,14 @@
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_start_time ON bookings (item_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_user_id_start_time ON bookings (user_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_id_created ON requests (requestor_id, created);
+
+-- items.request_id is 0 for items without request, so it has no foreign key
+ALTER TABLE items ADD CONSTRAINT fk_items_owner FOREIGN KEY (owner_id) REFERENCES users (user_id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES items (item_id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_booker FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE comments ADD CONSTRAINT fk_comments_item FOREIGN KEY (item_id) REFERENCES items (item_id);
+ALTER TABLE comments ADD CONSTRAINT fk_comments_author FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE requests ADD CONSTRAINT fk_requests_requestor FOREIGN KEY (requestor_id) REFERENCES users (user_id);
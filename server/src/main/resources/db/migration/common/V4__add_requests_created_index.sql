@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_requests_created_request_id ON requests (created DESC, request_id DESC);
@@ -0,0 +1 @@
+UPDATE bookings SET state = 'APPROVED' WHERE state IN ('CURRENT', 'PAST', 'FUTURE');
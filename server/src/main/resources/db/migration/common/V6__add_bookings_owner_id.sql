@@ -0,0 +1,5 @@
+-- Owner of the booked item, copied on insert to serve owner's bookings without join
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items AS i WHERE i.item_id = bookings.item_id);
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_id_start_time ON bookings (owner_id, start_time DESC);
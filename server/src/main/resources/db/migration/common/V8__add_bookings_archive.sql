@@ -0,0 +1,24 @@
+-- Bookings ended long ago, moved out of bookings by the archiver in batches
+CREATE TABLE IF NOT EXISTS bookings_archive(
+    booking_id BIGINT PRIMARY KEY NOT NULL,
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    state varchar(20) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_id_start_time ON bookings_archive (item_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_user_id_start_time ON bookings_archive (user_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_owner_id_start_time ON bookings_archive (owner_id, start_time DESC);
+
+ALTER TABLE bookings_archive ADD CONSTRAINT fk_bookings_archive_item FOREIGN KEY (item_id) REFERENCES items (item_id);
+ALTER TABLE bookings_archive ADD CONSTRAINT fk_bookings_archive_booker FOREIGN KEY (user_id) REFERENCES users (user_id);
+
+-- Active and archived bookings for queries of all and past bookings
+CREATE VIEW bookings_history AS
+SELECT booking_id, start_time, end_time, item_id, user_id, owner_id, state FROM bookings
+UNION ALL
+SELECT booking_id, start_time, end_time, item_id, user_id, owner_id, state FROM bookings_archive;
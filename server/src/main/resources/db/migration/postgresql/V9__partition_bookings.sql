@@ -0,0 +1,30 @@
+-- Monthly partition of bookings by start_time, created by afterMigrate__partition_bookings.sql
+-- and BookingPartitionMaintainer. Bookings of the month in the default partition are moved
+-- to the new partition: it is filled as a standalone table and attached, as a partition
+-- of the month cannot be created while the default partition has rows of it
+CREATE OR REPLACE FUNCTION create_bookings_partition(partition_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start DATE := date_trunc('month', partition_month)::DATE;
+    month_end DATE := (date_trunc('month', partition_month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'bookings_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    IF to_regclass('bookings_default') IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+        RETURN TRUE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE start_time >= %L AND start_time < %L '
+                       'RETURNING booking_id, start_time, end_time, item_id, user_id, state, owner_id, version) '
+                       'INSERT INTO %I (booking_id, start_time, end_time, item_id, user_id, state, owner_id, version) '
+                       'SELECT * FROM moved',
+                   month_start, month_end, partition_name);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
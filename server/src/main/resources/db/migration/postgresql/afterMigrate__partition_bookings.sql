@@ -0,0 +1,74 @@
+-- Optional range partitioning of bookings by start_time (shareit.booking-partitions.enabled),
+-- checked after every migration, so bookings are partitioned on the first start with the flag,
+-- also on a database migrated without it. Bookings are copied to the partitioned table with the same columns,
+-- indexes and foreign keys. Identity columns are not supported by partitioned tables,
+-- ids are taken from a sequence continuing both active and archived ids.
+-- Queries on partitioned bookings bound start time by the max booking duration (365 days),
+-- so bookings are not partitioned while longer ones exist
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    IF '${bookings_partitioning}' <> 'true'
+            OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('bookings')) THEN
+        RETURN;
+    END IF;
+    IF EXISTS (SELECT 1 FROM bookings WHERE end_time - start_time > INTERVAL '365 days') THEN
+        RAISE WARNING 'Bookings are not partitioned: some bookings are longer than 365 days';
+        RETURN;
+    END IF;
+
+    DROP VIEW bookings_history;
+    ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+
+    CREATE SEQUENCE bookings_id_seq AS BIGINT;
+    PERFORM setval('bookings_id_seq', GREATEST(
+            (SELECT COALESCE(MAX(booking_id), 0) FROM bookings_unpartitioned),
+            (SELECT COALESCE(MAX(booking_id), 0) FROM bookings_archive),
+            1));
+
+    CREATE TABLE bookings(
+        booking_id BIGINT DEFAULT nextval('bookings_id_seq') NOT NULL,
+        start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+        end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+        item_id BIGINT NOT NULL,
+        user_id BIGINT NOT NULL,
+        state varchar(20) NOT NULL,
+        owner_id BIGINT NOT NULL,
+        version BIGINT DEFAULT 0 NOT NULL,
+        CONSTRAINT pk_bookings PRIMARY KEY (booking_id, start_time)
+    ) PARTITION BY RANGE (start_time);
+    ALTER SEQUENCE bookings_id_seq OWNED BY bookings.booking_id;
+
+    -- Bookings out of created partitions
+    CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+    FOR month_start IN
+        SELECT generate_series(date_trunc('month', COALESCE(b.first_start, now())),
+                               GREATEST(date_trunc('month', b.last_start), date_trunc('month', now()))
+                                   + INTERVAL '3 months',
+                               INTERVAL '1 month')::DATE
+        FROM (SELECT MIN(start_time) AS first_start, MAX(start_time) AS last_start
+              FROM bookings_unpartitioned) AS b
+    LOOP
+        PERFORM create_bookings_partition(month_start);
+    END LOOP;
+
+    INSERT INTO bookings (booking_id, start_time, end_time, item_id, user_id, state, owner_id, version)
+    SELECT booking_id, start_time, end_time, item_id, user_id, state, owner_id, version
+    FROM bookings_unpartitioned;
+    DROP TABLE bookings_unpartitioned;
+
+    CREATE INDEX idx_bookings_item_id_start_time ON bookings (item_id, start_time);
+    CREATE INDEX idx_bookings_user_id_start_time ON bookings (user_id, start_time);
+    CREATE INDEX idx_bookings_owner_id_start_time ON bookings (owner_id, start_time DESC);
+    CREATE INDEX idx_bookings_end_time_booking_id ON bookings (end_time, booking_id);
+    ALTER TABLE bookings ADD CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES items (item_id);
+    ALTER TABLE bookings ADD CONSTRAINT fk_bookings_booker FOREIGN KEY (user_id) REFERENCES users (user_id);
+
+    CREATE VIEW bookings_history AS
+    SELECT booking_id, start_time, end_time, item_id, user_id, owner_id, state FROM bookings
+    UNION ALL
+    SELECT booking_id, start_time, end_time, item_id, user_id, owner_id, state FROM bookings_archive;
+END;
+$$;
@@ -12,10 +12,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -24,6 +26,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -132,6 +135,27 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(bookingDto.getStatus().toString())));
     }
 
+    @Test
+    void updateBookingStatusesTest() throws Exception {
+        List<BookingStatusResultDto> results = List.of(
+                BookingStatusResultDto.builder().bookingId(1).itemId(1).status(BookingStatusDto.APPROVED).build(),
+                BookingStatusResultDto.builder().bookingId(2).error("Item is already booked for these dates!").build());
+        when(bookingService.updateBookingStatuses(List.of(1, 2), true, "1"))
+                .thenReturn(results);
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .content(objectMapper.writeValueAsString(List.of(1, 2)))
+                        .contentType("application/json")
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].itemId", is(1)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2)))
+                .andExpect(jsonPath("$[1].error", is("Item is already booked for these dates!")));
+    }
+
     @Test
     void getBookingTest() throws Exception {
         when(bookingService.getBooking(bookingDto.getId(), "1"))
@@ -183,4 +207,22 @@ class BookingControllerTest {
                         .header("X-Sharer-User-Id", "1"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllBookingsByCursorTest() throws Exception {
+        List<BookingDto> bookingDtoList = new ArrayList<>();
+        bookingDtoList.add(bookingDto);
+
+        when(bookingService.getAllBookingsByCursor(BookingState.ALL, "", 1, "2"))
+                .thenReturn(new CursorPage<>(bookingDtoList, null));
+
+        mockMvc.perform(get("/bookings")
+                        .contentType("application/json")
+                        .param("state", "ALL")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER));
+    }
+}
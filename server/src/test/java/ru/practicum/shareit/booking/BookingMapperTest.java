@@ -7,7 +7,7 @@ import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -43,7 +43,7 @@ class BookingMapperTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         bookingPostDto = BookingPostDto.builder()
                 .itemId(1)
@@ -98,12 +98,12 @@ class BookingMapperTest {
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getItem(), result.getItem());
         assertEquals(booking.getBooker(), result.getBooker());
-        assertEquals(booking.getState(), result.getState());
+        assertEquals(booking.getStatus(), result.getStatus());
     }
 
     @Test
     void toBookingRejected() {
-        booking.setState(BookingState.REJECTED);
+        booking.setStatus(BookingStatus.REJECTED);
         bookingDto.setStatus(BookingStatusDto.REJECTED);
         Booking result = BookingMapper.toBooking(bookingDto);
 
@@ -113,17 +113,13 @@ class BookingMapperTest {
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getItem(), result.getItem());
         assertEquals(booking.getBooker(), result.getBooker());
-        assertEquals(booking.getState(), result.getState());
+        assertEquals(booking.getStatus(), result.getStatus());
     }
 
     @Test
-    void toBookingPast() {
-        booking.setState(BookingState.PAST);
-        booking.setStart(start.minusDays(11));
-        booking.setEnd(end.minusDays(10));
+    void toBookingApproved() {
+        booking.setStatus(BookingStatus.APPROVED);
         bookingDto.setStatus(BookingStatusDto.APPROVED);
-        bookingDto.setStart(start.minusDays(11));
-        bookingDto.setEnd(end.minusDays(10));
         Booking result = BookingMapper.toBooking(bookingDto);
 
         assertNotNull(result);
@@ -132,22 +128,7 @@ class BookingMapperTest {
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getItem(), result.getItem());
         assertEquals(booking.getBooker(), result.getBooker());
-        assertEquals(booking.getState(), result.getState());
-    }
-
-    @Test
-    void toBookingFuture() {
-        booking.setState(BookingState.FUTURE);
-        bookingDto.setStatus(BookingStatusDto.APPROVED);
-        Booking result = BookingMapper.toBooking(bookingDto);
-
-        assertNotNull(result);
-        assertEquals(booking.getId(), result.getId());
-        assertEquals(booking.getStart(), result.getStart());
-        assertEquals(booking.getEnd(), result.getEnd());
-        assertEquals(booking.getItem(), result.getItem());
-        assertEquals(booking.getBooker(), result.getBooker());
-        assertEquals(booking.getState(), result.getState());
+        assertEquals(booking.getStatus(), result.getStatus());
     }
 
     @Test
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingPostDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of booking creation: latency and SQL statements per booking.
+ * Runs only on demand: mvn test -pl server -Dtest=BookingCreationBenchmark -Dbenchmark.bookings=10000
+ * (-Dbenchmark.items, default 100)
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureTestDatabase
+@EnabledIfSystemProperty(named = "benchmark.bookings", matches = "\\d+")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingCreationBenchmark {
+
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void createBookings() {
+        int bookings = Integer.getInteger("benchmark.bookings");
+        int items = Integer.getInteger("benchmark.items", 100);
+
+        UserDto owner = userService.createUser(UserDto.builder().name("owner").email("owner@email.com").build());
+        UserDto booker = userService.createUser(UserDto.builder().name("booker").email("booker@email.com").build());
+        List<Integer> itemIds = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            itemIds.add(itemService.createItem(ItemDto.builder()
+                    .name("item " + i)
+                    .description("test")
+                    .available(true)
+                    .build(), String.valueOf(owner.getId())).getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        String bookerId = String.valueOf(booker.getId());
+
+        long total = 0;
+        long statements = 0;
+        for (int run = -bookings / 10; run < bookings; run++) {     // First runs are warm-up
+            BookingPostDto bookingPostDto = BookingPostDto.builder()
+                    .itemId(itemIds.get(random.nextInt(items)))
+                    .start(start.plusHours(run))
+                    .end(start.plusHours(run + 1))
+                    .build();
+            entityManager.clear();
+            statistics.clear();
+            long startTime = System.nanoTime();
+            bookingService.createBooking(bookingPostDto, bookerId);
+            if (run >= 0) {
+                total += System.nanoTime() - startTime;
+                statements += statistics.getPrepareStatementCount();
+            }
+        }
+        statistics.setStatisticsEnabled(false);
+
+        System.out.printf("create booking: %.1f us, %.1f statements per booking%n",
+                total / 1e3 / bookings, (double) statements / bookings);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionMaintainerTest {
+
+    @Mock
+    BookingRepository mockBookingRepository;
+
+    BookingPartitionMaintainer bookingPartitionMaintainer;
+
+    private static final LocalDate month = LocalDate.now().withDayOfMonth(1);
+
+    @BeforeEach
+    void setUp() {
+        bookingPartitionMaintainer = new BookingPartitionMaintainer(mockBookingRepository, 2);
+    }
+
+    @Test
+    void createPartitionsAhead() {
+        when(mockBookingRepository.isPartitioned())
+                .thenReturn(true);
+        when(mockBookingRepository.createPartition(month))
+                .thenReturn(false);
+        when(mockBookingRepository.createPartition(month.plusMonths(1)))
+                .thenReturn(true);
+        when(mockBookingRepository.createPartition(month.plusMonths(2)))
+                .thenReturn(true);
+
+        assertEquals(2, bookingPartitionMaintainer.createPartitions());
+    }
+
+    @Test
+    void createPartitionsAfterFailure() {
+        when(mockBookingRepository.isPartitioned())
+                .thenReturn(true);
+        when(mockBookingRepository.createPartition(month))
+                .thenThrow(new DataIntegrityViolationException("default partition has rows of the month"));
+        when(mockBookingRepository.createPartition(month.plusMonths(1)))
+                .thenReturn(true);
+        when(mockBookingRepository.createPartition(month.plusMonths(2)))
+                .thenReturn(true);
+
+        assertEquals(2, bookingPartitionMaintainer.createPartitions());
+    }
+
+    @Test
+    void createPartitionsForSingleTable() {
+        when(mockBookingRepository.isPartitioned())
+                .thenReturn(false);
+
+        assertEquals(0, bookingPartitionMaintainer.createPartitions());
+        Mockito.verify(mockBookingRepository, Mockito.never()).createPartition(Mockito.any(LocalDate.class));
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,30 +10,45 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingHistory;
 import ru.practicum.shareit.booking.model.BookingState;
-import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBookingHistory;
+import ru.practicum.shareit.booking.storage.BookingHistoryRepository;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.BookingPartiesView;
 import ru.practicum.shareit.booking.storage.BookingRepository;
-import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.item.storage.ItemCache;
+import ru.practicum.shareit.item.storage.ItemCalendarCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.exceptions.ResourceConflictException;
 import ru.practicum.shareit.util.exceptions.ResourceNotFoundException;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -44,28 +60,57 @@ class BookingServiceImplTest {
     UserService mockUserService;
 
     @Mock
-    ItemService mockItemService;
+    BookingRepository mockBookingRepository;
 
     @Mock
-    BookingRepository mockBookingRepository;
+    BookingHistoryRepository mockBookingHistoryRepository;
+
+    @Mock
+    ItemCache mockItemCache;
+
+    @Mock
+    ItemCalendarCache mockItemCalendarCache;
+
+    @Mock
+    BookingIntervalIndex mockBookingIntervalIndex;
 
     @InjectMocks
     BookingServiceImpl bookingService;
 
     private static final LocalDateTime start = LocalDateTime.now().plusDays(1);
     private static final LocalDateTime end = LocalDateTime.now().plusDays(2);
-    ItemBookingDto itemBookingDto;
     Item item;
     Item item2;
     User booker;
     User user;
-    UserDto userDto;
     Booking booking;
     Booking booking2;
     BookingDto bookingDto;
     BookingDto bookingDto2;
     BookingPostDto bookingPostDto;
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Complete transaction of the test thread
+     * calling synchronizations registered by service
+     */
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        });
+    }
+
     @BeforeEach
     void setUp() {
         item = Item.builder()
@@ -82,24 +127,12 @@ class BookingServiceImplTest {
                 .ownerId(2)
                 .isAvailable(true)
                 .build();
-        itemBookingDto = ItemBookingDto.builder()
-                .id(1)
-                .name("test item")
-                .description("test")
-                .ownerId(1)
-                .available(true)
-                .build();
 
         user = User.builder()
                 .id(1)
                 .name("user")
                 .email("user@email.com")
                 .build();
-        userDto = UserDto.builder()
-                .id(1)
-                .name("user")
-                .email("user@emai.com")
-                .build();
 
         booker = User.builder()
                 .id(2)
@@ -113,7 +146,7 @@ class BookingServiceImplTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         booking2 = Booking.builder()
                 .id(2)
@@ -121,7 +154,7 @@ class BookingServiceImplTest {
                 .end(end.plusHours(1))
                 .booker(booker)
                 .item(item2)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         bookingPostDto = BookingPostDto.builder()
                 .itemId(1)
@@ -152,10 +185,10 @@ class BookingServiceImplTest {
         String userId = String.valueOf(booker.getId());
 
 
-        when(mockItemService.getItemById(bookingPostDto.getItemId(), userId))
-                .thenReturn(itemBookingDto);
-        when(mockUserService.getUserById(Integer.parseInt(userId)))
-                .thenReturn(userDto);
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.of(toParties(item, booker)));
+        when(mockBookingIntervalIndex.isFree(bookingPostDto.getItemId(), start, end))
+                .thenReturn(true);
         when(mockBookingRepository.save(Mockito.any(Booking.class)))
                 .thenReturn(booking);
         BookingDto result = bookingService.createBooking(bookingPostDto, userId);
@@ -171,8 +204,8 @@ class BookingServiceImplTest {
         String userId = String.valueOf(user.getId());
 
 
-        when(mockItemService.getItemById(bookingPostDto.getItemId(), userId))
-                .thenReturn(itemBookingDto);
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), user.getId()))
+                .thenReturn(Optional.of(toParties(item, user)));
 
         Assertions.assertThrows(ResourceNotFoundException.class, () ->
                 bookingService.createBooking(bookingPostDto, userId));
@@ -182,26 +215,150 @@ class BookingServiceImplTest {
     void createBookingWithNotAvailable() {
         String userId = String.valueOf(booker.getId());
 
-        itemBookingDto.setAvailable(false);
+        item.setIsAvailable(false);
 
-        when(mockItemService.getItemById(bookingPostDto.getItemId(), userId))
-                .thenReturn(itemBookingDto);
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.of(toParties(item, booker)));
 
         Assertions.assertThrows(ValidationException.class, () ->
                 bookingService.createBooking(bookingPostDto, userId));
     }
 
 
+    @Test
+    void createBookingWithWrongItem() {
+        String userId = String.valueOf(booker.getId());
+
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThrows(NoSuchElementException.class, () ->
+                bookingService.createBooking(bookingPostDto, userId));
+    }
+
+    @Test
+    void createBookingOverlapping() {
+        String userId = String.valueOf(booker.getId());
+
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.of(toParties(item, booker)));
+        when(mockBookingIntervalIndex.isFree(bookingPostDto.getItemId(), start, end))
+                .thenReturn(false);
+
+        Assertions.assertThrows(ResourceConflictException.class, () ->
+                bookingService.createBooking(bookingPostDto, userId));
+        Mockito.verify(mockBookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createBookingOverlappingOtherInstance() {
+        String userId = String.valueOf(booker.getId());
+
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.of(toParties(item, booker)));
+        when(mockBookingIntervalIndex.isFree(bookingPostDto.getItemId(), start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.countApprovedOverlaps(bookingPostDto.getItemId(), 0, start, end))
+                .thenReturn(1L);
+
+        Assertions.assertThrows(ResourceConflictException.class, () ->
+                bookingService.createBooking(bookingPostDto, userId));
+        Mockito.verify(mockBookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createBookingTooLong() {
+        String userId = String.valueOf(booker.getId());
+        bookingPostDto.setEnd(start.plus(Booking.MAX_DURATION).plusHours(1));
+
+        when(mockBookingRepository.findBookingParties(bookingPostDto.getItemId(), booker.getId()))
+                .thenReturn(Optional.of(toParties(item, booker)));
+        when(mockBookingRepository.isPartitioned())
+                .thenReturn(true);
+
+        Assertions.assertThrows(ValidationException.class, () ->
+                bookingService.createBooking(bookingPostDto, userId));
+        Mockito.verify(mockBookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void updateBookingStatusOverlapping() {
+        String userId = String.valueOf(user.getId());
+        int bookingId = booking.getId();
+        boolean approved = true;
+
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
+        when(mockBookingRepository.findById(bookingId))
+                .thenReturn(Optional.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, start, end))
+                .thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertThrows(ResourceConflictException.class, () ->
+                bookingService.updateBookingStatus(bookingId, approved, userId));
+        Mockito.verify(mockBookingRepository, Mockito.never()).saveAndFlush(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void updateBookingStatusOverlappingOtherInstance() {
+        String userId = String.valueOf(user.getId());
+        int bookingId = booking.getId();
+        boolean approved = true;
+
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
+        when(mockBookingRepository.findById(bookingId))
+                .thenReturn(Optional.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.countApprovedOverlaps(item.getId(), bookingId, start, end))
+                .thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertThrows(ResourceConflictException.class, () ->
+                bookingService.updateBookingStatus(bookingId, approved, userId));
+        Mockito.verify(mockBookingIntervalIndex).release(item.getId(), bookingId, start);
+        Mockito.verify(mockBookingRepository, Mockito.never()).saveAndFlush(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void updateBookingStatusNotSaved() {
+        String userId = String.valueOf(user.getId());
+        int bookingId = booking.getId();
+        boolean approved = true;
+
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
+        when(mockBookingRepository.findById(bookingId))
+                .thenReturn(Optional.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
+                .thenThrow(new IllegalStateException("test"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                bookingService.updateBookingStatus(bookingId, approved, userId));
+        Mockito.verify(mockBookingIntervalIndex, Mockito.never()).release(item.getId(), bookingId, start);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Mockito.verify(mockBookingIntervalIndex).release(item.getId(), bookingId, start);
+    }
+
     @Test
     void updateBookingStatusChecked() {
         String userId = String.valueOf(user.getId());
         int bookingId = booking.getId();
-        booking.setState(BookingState.CURRENT);
+        booking.setStatus(BookingStatus.APPROVED);
         boolean approved = true;
 
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
+        TransactionSynchronizationManager.initSynchronization();
         Assertions.assertThrows(ValidationException.class, () ->
                 bookingService.updateBookingStatus(bookingId, approved, userId));
     }
@@ -213,8 +370,11 @@ class BookingServiceImplTest {
         boolean approved = true;
 
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
+        TransactionSynchronizationManager.initSynchronization();
         Assertions.assertThrows(ResourceNotFoundException.class, () ->
                 bookingService.updateBookingStatus(bookingId, approved, userId));
     }
@@ -234,13 +394,18 @@ class BookingServiceImplTest {
                 .end(end.minusDays(3))
                 .item(item)
                 .booker(booker)
-                .state(BookingState.PAST)
+                .status(BookingStatus.APPROVED)
                 .build();
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
-        when(mockBookingRepository.save(Mockito.any(Booking.class)))
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, booking.getStart(), booking.getEnd()))
+                .thenReturn(true);
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
                 .thenReturn(savedBooking);
+        TransactionSynchronizationManager.initSynchronization();
         BookingDto result = bookingService.updateBookingStatus(bookingId, approved, userId);
 
         assertNotNull(result);
@@ -260,18 +425,24 @@ class BookingServiceImplTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.FUTURE)
+                .status(BookingStatus.APPROVED)
                 .build();
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
-        when(mockBookingRepository.save(Mockito.any(Booking.class)))
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, booking.getStart(), booking.getEnd()))
+                .thenReturn(true);
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
                 .thenReturn(savedBooking);
+        TransactionSynchronizationManager.initSynchronization();
         BookingDto result = bookingService.updateBookingStatus(bookingId, approved, userId);
 
         assertNotNull(result);
         assertEquals(booking.getId(), result.getId());
         assertEquals(BookingStatusDto.APPROVED, result.getStatus());
+        Mockito.verify(mockBookingRepository).lockItems(List.of(item.getId()));     // Until the end of transaction
     }
 
     @Test
@@ -287,13 +458,18 @@ class BookingServiceImplTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.CURRENT)
+                .status(BookingStatus.APPROVED)
                 .build();
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
-        when(mockBookingRepository.save(Mockito.any(Booking.class)))
+        when(mockBookingIntervalIndex.reserve(item.getId(), bookingId, booking.getStart(), booking.getEnd()))
+                .thenReturn(true);
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
                 .thenReturn(savedBooking);
+        TransactionSynchronizationManager.initSynchronization();
         BookingDto result = bookingService.updateBookingStatus(bookingId, approved, userId);
 
         assertNotNull(result);
@@ -313,13 +489,16 @@ class BookingServiceImplTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.REJECTED)
+                .status(BookingStatus.REJECTED)
                 .build();
 
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
         when(mockBookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
-        when(mockBookingRepository.save(Mockito.any(Booking.class)))
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
                 .thenReturn(savedBooking);
+        TransactionSynchronizationManager.initSynchronization();
         BookingDto result = bookingService.updateBookingStatus(bookingId, approved, userId);
 
         assertNotNull(result);
@@ -328,6 +507,120 @@ class BookingServiceImplTest {
     }
 
 
+    @Test
+    void updateBookingStatusChangedConcurrently() {
+        String userId = String.valueOf(user.getId());
+        int bookingId = booking.getId();
+        boolean approved = false;
+
+        when(mockBookingRepository.findItemId(bookingId))
+                .thenReturn(Optional.of(item.getId()));
+        when(mockBookingRepository.findById(bookingId))
+                .thenReturn(Optional.of(booking));
+        when(mockBookingRepository.saveAndFlush(Mockito.any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertThrows(ValidationException.class, () ->
+                bookingService.updateBookingStatus(bookingId, approved, userId));
+    }
+
+    @Test
+    void updateBookingStatusesCheckedConcurrently() {
+        String userId = String.valueOf(user.getId());
+
+        when(mockBookingRepository.findAllWithItemByIdIn(List.of(1, 3)))
+                .thenReturn(List.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), booking.getId(), start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.updateWaitingStatus(List.of(1), BookingStatus.APPROVED))
+                .thenReturn(new boolean[]{false});
+        TransactionSynchronizationManager.initSynchronization();
+        List<BookingStatusResultDto> results = bookingService.updateBookingStatuses(List.of(1, 3), true, userId);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(2, results.size());
+        assertNull(results.get(0).getStatus());
+        assertNull(results.get(0).getItemId());
+        assertEquals("Owner has already checked this booking!", results.get(0).getError());
+        assertEquals("Booking with id 3 not found!", results.get(1).getError());
+        Mockito.verify(mockBookingIntervalIndex).release(item.getId(), booking.getId(), start);
+    }
+
+    @Test
+    void updateBookingStatusesRolledBack() {
+        String userId = String.valueOf(user.getId());
+
+        when(mockBookingRepository.findAllWithItemByIdIn(List.of(1)))
+                .thenReturn(List.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), booking.getId(), start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.updateWaitingStatus(List.of(1), BookingStatus.APPROVED))
+                .thenThrow(new QueryTimeoutException("update timed out"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        Assertions.assertThrows(QueryTimeoutException.class, () ->
+                bookingService.updateBookingStatuses(List.of(1), true, userId));
+        Mockito.verify(mockBookingIntervalIndex, Mockito.never()).release(item.getId(), booking.getId(), start);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Mockito.verify(mockBookingIntervalIndex).release(item.getId(), booking.getId(), start);
+        Mockito.verify(mockItemCalendarCache, Mockito.never()).evict(item.getId());
+    }
+
+    @Test
+    void updateBookingStatusesEvictCachesAfterCommit() {
+        String userId = String.valueOf(user.getId());
+
+        when(mockBookingRepository.findAllWithItemByIdIn(List.of(1)))
+                .thenReturn(List.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), booking.getId(), start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.updateWaitingStatus(List.of(1), BookingStatus.APPROVED))
+                .thenReturn(new boolean[]{true});
+        TransactionSynchronizationManager.initSynchronization();
+        bookingService.updateBookingStatuses(List.of(1), true, userId);
+
+        Mockito.verify(mockItemCache, Mockito.never()).evict(item.getId());     // Old item may be read
+        Mockito.verify(mockItemCalendarCache, Mockito.never()).evict(item.getId());
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        Mockito.verify(mockItemCache).evict(item.getId());
+        Mockito.verify(mockItemCalendarCache).evict(item.getId());
+    }
+
+    @Test
+    void updateBookingStatusesLockItemsUntilCompletion() {
+        String userId = String.valueOf(user.getId());
+
+        when(mockBookingRepository.findAllWithItemByIdIn(List.of(1)))
+                .thenReturn(List.of(booking));
+        when(mockBookingIntervalIndex.reserve(item.getId(), booking.getId(), start, end))
+                .thenReturn(true);
+        when(mockBookingRepository.updateWaitingStatus(List.of(1), BookingStatus.APPROVED))
+                .thenReturn(new boolean[]{true});
+        when(mockBookingRepository.findItemId(2))
+                .thenReturn(Optional.of(item.getId()));
+        when(mockBookingRepository.findById(2))
+                .thenReturn(Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+        bookingService.updateBookingStatuses(List.of(1), true, userId);
+
+        CompletableFuture<BookingDto> single = CompletableFuture.supplyAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                return bookingService.updateBookingStatus(2, true, userId);
+            } finally {
+                completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        });
+        Assertions.assertThrows(TimeoutException.class, () -> single.get(200, TimeUnit.MILLISECONDS));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () ->
+                single.get(5, TimeUnit.SECONDS));     // Lock of item is free after commit
+        assertEquals(NoSuchElementException.class, e.getCause().getClass());
+    }
+
     @Test
     void getBooking() {
         String userId = String.valueOf(user.getId());
@@ -366,26 +659,40 @@ class BookingServiceImplTest {
                 bookingService.getBooking(booking.getId(), userId));
     }
 
+    @Test
+    void getArchivedBooking() {
+        String userId = String.valueOf(booker.getId());
+        when(mockBookingRepository.findById(booking.getId()))
+                .thenReturn(Optional.empty());
+        when(mockBookingHistoryRepository.findById(booking.getId()))
+                .thenReturn(Optional.of(toHistory(booking)));
+
+        BookingDto result = bookingService.getBooking(booking.getId(), userId);
+
+        assertEquals(booking.getId(), result.getId());
+        assertEquals(booker, result.getBooker());
+    }
+
     @Test
     void getAllBookingsWithPagination() {
         String userId = String.valueOf(booker.getId());
 
         int from = 0;
         int size = 20;
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.REJECTED);
-        bookingList.add(booking);
-        booking2.setState(BookingState.REJECTED);
-        bookingList.add(booking2);
-        Page<Booking> bookingPage = new PageImpl<>(bookingList);
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.REJECTED);
+        bookingList.add(toHistory(booking2));
+        Page<BookingHistory> bookingPage = new PageImpl<>(bookingList);
 
-        BooleanExpression byBookerId = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.eq(BookingState.REJECTED);
+        BooleanExpression byBookerId = QBookingHistory.bookingHistory.booker.id.eq(Integer.parseInt(userId));
+        BooleanExpression byState = QBookingHistory.bookingHistory.status.eq(BookingStatus.REJECTED);
 
         Sort.Direction sort = Sort.Direction.DESC;
         PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "start"));
 
-        when(mockBookingRepository.findAll(byBookerId.and(byState), page))
+        when(mockBookingHistoryRepository.findAll(byBookerId.and(byState), page))
                 .thenReturn(bookingPage);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -403,17 +710,17 @@ class BookingServiceImplTest {
     void getAllBookingsWithoutSize() {
         String userId = String.valueOf(booker.getId());
 
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.FUTURE);
-        bookingList.add(booking);
-        booking2.setState(BookingState.WAITING);
-        bookingList.add(booking2);
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.WAITING);
+        bookingList.add(toHistory(booking2));
 
-        BooleanExpression byBookerId = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.isNotNull();
+        BooleanExpression byBookerId = QBookingHistory.bookingHistory.booker.id.eq(Integer.parseInt(userId));
+        BooleanExpression byState = null;
         Sort.Direction sort = Sort.Direction.DESC;
 
-        when(mockBookingRepository.findAll(byBookerId.and(byState), Sort.by(sort, "start")))
+        when(mockBookingHistoryRepository.findAll(byBookerId.and(byState), Sort.by(sort, "start")))
                 .thenReturn(bookingList);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -430,17 +737,17 @@ class BookingServiceImplTest {
     void getAllBookingsWithoutPagination() {
         String userId = String.valueOf(booker.getId());
 
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.FUTURE);
-        bookingList.add(booking);
-        booking2.setState(BookingState.WAITING);
-        bookingList.add(booking2);
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.WAITING);
+        bookingList.add(toHistory(booking2));
 
-        BooleanExpression byBookerId = QBooking.booking.booker.id.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.isNotNull();
+        BooleanExpression byBookerId = QBookingHistory.bookingHistory.booker.id.eq(Integer.parseInt(userId));
+        BooleanExpression byState = null;
         Sort.Direction sort = Sort.Direction.DESC;
 
-        when(mockBookingRepository.findAll(byBookerId.and(byState), Sort.by(sort, "start")))
+        when(mockBookingHistoryRepository.findAll(byBookerId.and(byState), Sort.by(sort, "start")))
                 .thenReturn(bookingList);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -457,33 +764,30 @@ class BookingServiceImplTest {
     void getAllBookingsForAllItemsWithNoItems() {
         String userId = String.valueOf(booker.getId());
 
-        when(mockItemService.getAllItems(null, null, userId))
+        BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+
+        when(mockBookingHistoryRepository.findAll(byOwner, Sort.by(Sort.Direction.DESC, "start")))
                 .thenReturn(new ArrayList<>());
 
-        assertNull(bookingService.getAllBookingsForAllItems(BookingState.ALL, null, null, userId));
+        assertTrue(bookingService.getAllBookingsForAllItems(BookingState.ALL, null, null, userId).isEmpty());
     }
 
     @Test
     void getAllBookingsForAllItemsWithoutSize() {
         String userId = String.valueOf(booker.getId());
 
-        List<ItemBookingDto> itemBookingDtoList = new ArrayList<>();
-        itemBookingDtoList.add(itemBookingDto);
 
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.WAITING);
+        bookingList.add(toHistory(booking2));
 
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.FUTURE);
-        bookingList.add(booking);
-        booking2.setState(BookingState.WAITING);
-        bookingList.add(booking2);
-
-        BooleanExpression byItem = QBooking.booking.item.ownerId.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.isNotNull();
+        BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+        BooleanExpression byState = null;
         Sort.Direction sort = Sort.Direction.DESC;
 
-        when(mockItemService.getAllItems(null, null, userId))
-                .thenReturn(itemBookingDtoList);
-        when(mockBookingRepository.findAll(byItem.and(byState), Sort.by(sort, "start")))
+        when(mockBookingHistoryRepository.findAll(byOwner.and(byState), Sort.by(sort, "start")))
                 .thenReturn(bookingList);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -500,22 +804,17 @@ class BookingServiceImplTest {
     void getAllBookingsForAllItems() {
         String userId = String.valueOf(booker.getId());
 
-        List<ItemBookingDto> itemBookingDtoList = new ArrayList<>();
-        itemBookingDtoList.add(itemBookingDto);
-
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.FUTURE);
-        bookingList.add(booking);
-        booking2.setState(BookingState.WAITING);
-        bookingList.add(booking2);
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.WAITING);
+        bookingList.add(toHistory(booking2));
 
-        BooleanExpression byItem = QBooking.booking.item.ownerId.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.isNotNull();
+        BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+        BooleanExpression byState = null;
         Sort.Direction sort = Sort.Direction.DESC;
 
-        when(mockItemService.getAllItems(null, null, userId))
-                .thenReturn(itemBookingDtoList);
-        when(mockBookingRepository.findAll(byItem.and(byState), Sort.by(sort, "start")))
+        when(mockBookingHistoryRepository.findAll(byOwner.and(byState), Sort.by(sort, "start")))
                 .thenReturn(bookingList);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -532,26 +831,21 @@ class BookingServiceImplTest {
     void getAllBookingsForAllItemsWithPagination() {
         String userId = String.valueOf(booker.getId());
 
-        List<ItemBookingDto> itemBookingDtoList = new ArrayList<>();
-        itemBookingDtoList.add(itemBookingDto);
-
         int from = 0;
         int size = 20;
-        List<Booking> bookingList = new ArrayList<>();
-        booking.setState(BookingState.REJECTED);
-        bookingList.add(booking);
-        booking2.setState(BookingState.REJECTED);
-        bookingList.add(booking2);
-        Page<Booking> bookingPage = new PageImpl<>(bookingList);
-
-        BooleanExpression byItem = QBooking.booking.item.ownerId.eq(Integer.parseInt(userId));
-        BooleanExpression byState = QBooking.booking.state.eq(BookingState.REJECTED);
+        List<BookingHistory> bookingList = new ArrayList<>();
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingList.add(toHistory(booking));
+        booking2.setStatus(BookingStatus.REJECTED);
+        bookingList.add(toHistory(booking2));
+        Page<BookingHistory> bookingPage = new PageImpl<>(bookingList);
+
+        BooleanExpression byOwner = QBookingHistory.bookingHistory.ownerId.eq(Integer.parseInt(userId));
+        BooleanExpression byState = QBookingHistory.bookingHistory.status.eq(BookingStatus.REJECTED);
         Sort.Direction sort = Sort.Direction.DESC;
         PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "start"));
 
-        when(mockItemService.getAllItems(null, null, userId))
-                .thenReturn(itemBookingDtoList);
-        when(mockBookingRepository.findAll(byItem.and(byState), page))
+        when(mockBookingHistoryRepository.findAll(byOwner.and(byState), page))
                 .thenReturn(bookingPage);
 
         List<BookingDto> bookingDtoList = new ArrayList<>();
@@ -564,4 +858,30 @@ class BookingServiceImplTest {
         assertNotNull(result);
         assertEquals(bookingDtoList.size(), result.size());
     }
-}
\ No newline at end of file
+
+    private static BookingPartiesView toParties(Item item, User booker) {
+        return new BookingPartiesView() {
+            @Override
+            public Item getItem() {
+                return item;
+            }
+
+            @Override
+            public User getBooker() {
+                return booker;
+            }
+        };
+    }
+
+    private static BookingHistory toHistory(Booking booking) {
+        return BookingHistory.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .ownerId(booking.getItem().getOwnerId())
+                .status(booking.getStatus())
+                .build();
+    }
+}
@@ -9,8 +9,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
@@ -19,13 +22,17 @@ import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.CursorPage;
+import ru.practicum.shareit.util.exceptions.ResourceConflictException;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest
@@ -34,8 +41,11 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 public class BookingServiceIntegrationTest {
 
     private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingPartitionMaintainer bookingPartitionMaintainer;
     private final UserService userService;
     private final ItemService itemService;
+    private final EntityManager entityManager;
     private static final LocalDateTime start = LocalDateTime.now().plusDays(1);
     private static final LocalDateTime end = LocalDateTime.now().plusDays(2);
     Item item;
@@ -118,7 +128,7 @@ public class BookingServiceIntegrationTest {
                 .end(end)
                 .item(item)
                 .booker(booker)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         booking2 = Booking.builder()
                 .id(2)
@@ -126,7 +136,7 @@ public class BookingServiceIntegrationTest {
                 .end(end.plusHours(1))
                 .booker(booker)
                 .item(item2)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         bookingPostDto = BookingPostDto.builder()
                 .itemId(1)
@@ -189,6 +199,118 @@ public class BookingServiceIntegrationTest {
         assertThat(result).isEqualTo(bookingDto);
     }
 
+    @Test
+    void overlappingBookingTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+        String ownerId = String.valueOf(createdUser.getId());
+        BookingPostDto overlappingPostDto = BookingPostDto.builder()
+                .itemId(createdItem.getId())
+                .start(start.plusHours(1))
+                .end(end.plusHours(1))
+                .build();
+
+        BookingDto createdBooking = bookingService.createBooking(bookingPostDto, bookerId);
+        BookingDto overlappingBooking = bookingService.createBooking(overlappingPostDto, bookerId);
+        bookingService.updateBookingStatus(createdBooking.getId(), true, ownerId);
+
+        assertThrows(ResourceConflictException.class, () ->
+                bookingService.updateBookingStatus(overlappingBooking.getId(), true, ownerId));
+        assertThrows(ResourceConflictException.class, () ->
+                bookingService.createBooking(overlappingPostDto, bookerId));
+    }
+
+    @Test
+    void updateBookingStatusesTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+        String ownerId = String.valueOf(createdUser.getId());
+        BookingPostDto overlappingPostDto = BookingPostDto.builder()
+                .itemId(createdItem.getId())
+                .start(start.plusHours(1))
+                .end(end.plusHours(1))
+                .build();
+
+        BookingDto createdBooking = bookingService.createBooking(bookingPostDto, bookerId);
+        BookingDto overlappingBooking = bookingService.createBooking(overlappingPostDto, bookerId);
+        List<BookingStatusResultDto> results = bookingService.updateBookingStatuses(List.of(createdBooking.getId(),
+                overlappingBooking.getId(), createdBooking.getId(), -1), true, ownerId);
+        entityManager.clear();
+
+        assertThat(results.size()).isEqualTo(3);
+        assertThat(results.get(0).getStatus()).isEqualTo(BookingStatusDto.APPROVED);
+        assertThat(results.get(0).getItemId()).isEqualTo(createdBooking.getItem().getId());
+        assertThat(results.get(1).getStatus()).isNull();
+        assertThat(results.get(1).getItemId()).isNull();
+        assertThat(results.get(1).getError()).isEqualTo("Item is already booked for these dates!");
+        assertThat(results.get(2).getBookingId()).isEqualTo(-1);
+        assertThat(results.get(2).getError()).isNotNull();
+        assertThat(bookingService.getBooking(createdBooking.getId(), ownerId).getStatus())
+                .isEqualTo(BookingStatusDto.APPROVED);
+        assertThat(bookingService.getBooking(overlappingBooking.getId(), ownerId).getStatus())
+                .isEqualTo(BookingStatusDto.WAITING);
+        assertThat(bookingService.updateBookingStatuses(List.of(createdBooking.getId()), false, ownerId)
+                .get(0).getError()).isEqualTo("Owner has already checked this booking!");
+    }
+
+    @Test
+    void archiveBookingsTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+        String ownerId = String.valueOf(createdUser.getId());
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(200);
+        List<Integer> oldBookingIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            oldBookingIds.add(bookingService.createBooking(BookingPostDto.builder()
+                    .itemId(createdItem.getId())
+                    .start(longAgo.plusDays(i))
+                    .end(longAgo.plusDays(i).plusHours(1))
+                    .build(), bookerId).getId());
+        }
+        BookingDto futureBooking = bookingService.createBooking(bookingPostDto, bookerId);
+
+        BookingArchiver bookingArchiver = new BookingArchiver(bookingRepository, 90, 2);
+        assertThat(bookingArchiver.archiveBookings()).isEqualTo(3);
+        assertThat(bookingArchiver.archiveBookings()).isEqualTo(0);
+        entityManager.clear();
+
+        assertThat(bookingRepository.findAllById(oldBookingIds).size()).isEqualTo(0);
+        assertThat(bookingService.getBooking(oldBookingIds.get(0), ownerId).getId())
+                .isEqualTo(oldBookingIds.get(0));
+        assertThat(bookingService.getAllBookings(BookingState.ALL, null, null, bookerId).size())
+                .isEqualTo(4);
+        assertThat(bookingService.getAllBookings(BookingState.WAITING, null, null, bookerId).size())
+                .isEqualTo(4);
+        assertThat(bookingService.getAllBookingsByCursor(BookingState.WAITING, null, 5, bookerId).getContent()
+                .size()).isEqualTo(4);
+        assertThat(bookingService.getAllBookingsForAllItems(BookingState.PAST, 2, 2, ownerId).get(0).getId())
+                .isEqualTo(oldBookingIds.get(0));
+        assertThat(bookingService.getAllBookingsByCursor(BookingState.PAST, null, 5, bookerId).getContent().size())
+                .isEqualTo(3);
+        assertThat(bookingService.getAllBookingsForAllItems(BookingState.FUTURE, null, null, ownerId).get(0).getId())
+                .isEqualTo(futureBooking.getId());
+    }
+
+    @Test
+    void createPartitionsForSingleTableTest() {
+        assertThat(bookingRepository.isPartitioned()).isFalse();
+        assertThat(bookingPartitionMaintainer.createPartitions()).isEqualTo(0);
+    }
+
+    @Test
+    void longBookingForSingleTableTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+        String ownerId = String.valueOf(createdUser.getId());
+        BookingDto longBooking = bookingService.createBooking(BookingPostDto.builder()
+                .itemId(createdItem.getId())
+                .start(LocalDateTime.now().minus(Booking.MAX_DURATION).minusDays(30))
+                .end(end)
+                .build(), bookerId);
+        bookingService.updateBookingStatus(longBooking.getId(), true, ownerId);
+
+        assertThat(bookingService.getAllBookings(BookingState.CURRENT, null, null, bookerId).get(0).getId())
+                .isEqualTo(longBooking.getId());
+        assertThrows(ResourceConflictException.class, () ->
+                bookingService.createBooking(bookingPostDto, bookerId));
+    }
+
     @Test
     void getBookingTest() {
         String userId = String.valueOf(createdBooker.getId());
@@ -250,4 +372,98 @@ public class BookingServiceIntegrationTest {
 
         assertThat(result.size()).isEqualTo(bookingDtoList.size());
     }
+
+    @Test
+    void getAllBookingsForAllItemsWithoutItemsTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+
+        bookingService.createBooking(bookingPostDto, bookerId);
+        List<BookingDto> result = bookingService.getAllBookingsForAllItems(BookingState.ALL, null, null, bookerId);
+
+        assertThat(result.isEmpty()).isTrue();
+    }
+
+    @Test
+    void getAllBookingsByStateTest() {
+        String bookerId = String.valueOf(createdBooker.getId());
+        String ownerId = String.valueOf(createdUser.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        BookingDto pastBooking = bookingService.createBooking(BookingPostDto.builder()
+                .itemId(createdItem.getId())
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .build(), bookerId);
+        BookingDto currentBooking = bookingService.createBooking(BookingPostDto.builder()
+                .itemId(createdItem.getId())
+                .start(now.minusDays(1))
+                .end(now.plusHours(1))
+                .build(), bookerId);
+        BookingDto futureBooking = bookingService.createBooking(bookingPostDto, bookerId);
+        bookingService.updateBookingStatus(pastBooking.getId(), true, ownerId);
+        bookingService.updateBookingStatus(currentBooking.getId(), false, ownerId);
+
+        assertThat(bookingService.getAllBookings(BookingState.PAST, null, null, bookerId).get(0).getId())
+                .isEqualTo(pastBooking.getId());
+        assertThat(bookingService.getAllBookings(BookingState.CURRENT, null, null, bookerId).get(0).getId())
+                .isEqualTo(currentBooking.getId());
+        assertThat(bookingService.getAllBookings(BookingState.FUTURE, null, null, bookerId).get(0).getId())
+                .isEqualTo(futureBooking.getId());
+        assertThat(bookingService.getAllBookings(BookingState.WAITING, null, null, bookerId).get(0).getId())
+                .isEqualTo(futureBooking.getId());
+        assertThat(bookingService.getAllBookings(BookingState.REJECTED, null, null, bookerId).get(0).getId())
+                .isEqualTo(currentBooking.getId());
+        assertThat(bookingService.getAllBookingsForAllItems(BookingState.PAST, null, null, ownerId).size())
+                .isEqualTo(1);
+        assertThat(bookingService.getAllBookings(BookingState.ALL, null, null, bookerId).size())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void getAllBookingsByCursorTest() {
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto createdItem2 = itemService.createItem(itemDto2, userId);
+        bookingPostDto2.setItemId(createdItem2.getId());
+
+        userId = String.valueOf(createdBooker.getId());
+
+        BookingDto createdBooking = bookingService.createBooking(bookingPostDto, userId);
+        BookingDto createdBooking2 = bookingService.createBooking(bookingPostDto2, userId);
+
+        CursorPage<BookingDto> firstPage = bookingService.getAllBookingsByCursor(BookingState.ALL, "", 1, userId);
+
+        assertThat(firstPage.getContent().size()).isEqualTo(1);
+        assertThat(firstPage.getContent().get(0).getId()).isEqualTo(createdBooking2.getId());
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        CursorPage<BookingDto> secondPage = bookingService.getAllBookingsByCursor(BookingState.ALL,
+                firstPage.getNextCursor(), 1, userId);
+
+        assertThat(secondPage.getContent().size()).isEqualTo(1);
+        assertThat(secondPage.getContent().get(0).getId()).isEqualTo(createdBooking.getId());
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllBookingsForAllItemsByCursorTest() {
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto createdItem2 = itemService.createItem(itemDto2, userId);
+        bookingPostDto2.setItemId(createdItem2.getId());
+
+        String bookerId = String.valueOf(createdBooker.getId());
+
+        BookingDto createdBooking = bookingService.createBooking(bookingPostDto, bookerId);
+        BookingDto createdBooking2 = bookingService.createBooking(bookingPostDto2, bookerId);
+
+        CursorPage<BookingDto> firstPage = bookingService.getAllBookingsForAllItemsByCursor(BookingState.ALL,
+                "", 1, userId);
+        CursorPage<BookingDto> secondPage = bookingService.getAllBookingsForAllItemsByCursor(BookingState.ALL,
+                firstPage.getNextCursor(), 1, userId);
+
+        assertThat(firstPage.getContent().get(0).getId()).isEqualTo(createdBooking2.getId());
+        assertThat(secondPage.getContent().get(0).getId()).isEqualTo(createdBooking.getId());
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
 }
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    BookingRepository mockBookingRepository;
+
+    BookingIntervalIndex bookingIntervalIndex;
+
+    private static final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        bookingIntervalIndex = new BookingIntervalIndex(mockBookingRepository, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void reserveOverlapping() {
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        assertTrue(bookingIntervalIndex.reserve(1, 1, start, start.plusDays(2)));
+
+        assertFalse(bookingIntervalIndex.isFree(1, start.minusDays(1), start.plusHours(1)));
+        assertFalse(bookingIntervalIndex.isFree(1, start.plusHours(1), start.plusHours(2)));
+        assertFalse(bookingIntervalIndex.isFree(1, start.plusDays(1), start.plusDays(3)));
+        assertFalse(bookingIntervalIndex.reserve(1, 2, start.minusDays(1), start.plusDays(3)));
+        assertTrue(bookingIntervalIndex.isFree(1, start.minusDays(1), start));
+        assertTrue(bookingIntervalIndex.isFree(1, start.plusDays(2), start.plusDays(3)));
+    }
+
+    @Test
+    void reserveAfterRelease() {
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        bookingIntervalIndex.reserve(1, 1, start, start.plusDays(2));
+        bookingIntervalIndex.release(1, 1, start);
+
+        assertTrue(bookingIntervalIndex.reserve(1, 2, start.plusDays(1), start.plusDays(3)));
+    }
+
+    @Test
+    void isFreeWithLoadedBookings() {
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of(toView(1, start, start.plusDays(5)),
+                        toView(2, start.plusDays(1), start.plusDays(2)),
+                        toView(3, start.plusDays(10), start.plusDays(11))));
+
+        assertFalse(bookingIntervalIndex.isFree(1, start.plusDays(3), start.plusDays(4)));
+        assertTrue(bookingIntervalIndex.isFree(1, start.plusDays(5), start.plusDays(10)));
+        assertTrue(bookingIntervalIndex.isFree(2, start.plusDays(3), start.plusDays(4)));
+        Mockito.verify(mockBookingRepository, Mockito.times(1))
+                .findApprovedBookings(eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reserveConcurrently() throws Exception {
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            int bookingId = i;
+            results.add(executor.submit(() -> bookingIntervalIndex.reserve(1, bookingId,
+                    start.plusHours(bookingId % 10), start.plusDays(1))));
+        }
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            reserved += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        assertEquals(1, reserved);
+    }
+
+    @Test
+    void reserveAfterIntervalEnded() {
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertTrue(bookingIntervalIndex.reserve(1, 1, now.minusDays(2), now.minusDays(1)));
+
+        assertTrue(bookingIntervalIndex.reserve(1, 2, now.minusDays(3), now.plusDays(1)));
+    }
+
+    @Test
+    void isFreeAfterTtl() {
+        bookingIntervalIndex = new BookingIntervalIndex(mockBookingRepository, 2, Duration.ZERO);
+        when(mockBookingRepository.findApprovedBookings(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(toView(1, start, start.plusDays(1))));     // Approved by another instance
+
+        assertTrue(bookingIntervalIndex.isFree(1, start, start.plusDays(1)));
+        assertFalse(bookingIntervalIndex.isFree(1, start, start.plusDays(1)));
+    }
+
+    @Test
+    void evictLeastRecentlyUsedItem() {
+        when(mockBookingRepository.findApprovedBookings(any(Integer.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        bookingIntervalIndex.isFree(1, start, start.plusDays(1));
+        bookingIntervalIndex.isFree(2, start, start.plusDays(1));
+        bookingIntervalIndex.isFree(1, start, start.plusDays(1));
+        bookingIntervalIndex.isFree(3, start, start.plusDays(1));     // Item 2 is the least recently used one
+        bookingIntervalIndex.isFree(1, start, start.plusDays(1));
+
+        assertEquals(2, bookingIntervalIndex.size());
+        Mockito.verify(mockBookingRepository, Mockito.times(1))
+                .findApprovedBookings(eq(1), any(LocalDateTime.class));
+    }
+
+    private static BookingItemView toView(int id, LocalDateTime startTime, LocalDateTime endTime) {
+        return new BookingItemView() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public int getItemId() {
+                return 1;
+            }
+
+            @Override
+            public int getBookerId() {
+                return 2;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return startTime;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return endTime;
+            }
+        };
+    }
+}
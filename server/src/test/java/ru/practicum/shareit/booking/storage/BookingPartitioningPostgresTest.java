@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partitioning of bookings by server migrations on PostgreSQL
+ * in a separate schema, which is dropped after each test.
+ * Runs only on demand: mvn test -Dtest=BookingPartitioningPostgresTest
+ * -Dtest.pg.url=jdbc:postgresql://host:port/db (-Dtest.pg.user, -Dtest.pg.password)
+ */
+@EnabledIfSystemProperty(named = "test.pg.url", matches = ".+")
+class BookingPartitioningPostgresTest {
+
+    private static final String SCHEMA = "bookings_partitioning_test";
+
+    private static final String IS_PARTITIONED = "SELECT EXISTS " +
+            "(SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('bookings'))";
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private int itemId;
+
+    private int bookerId;
+
+    @BeforeEach
+    void setUp() {
+        String url = System.getProperty("test.pg.url");
+        dataSource = new DriverManagerDataSource((url.contains("?") ? url + "&" : url + "?") +
+                "currentSchema=" + SCHEMA,
+                System.getProperty("test.pg.user", "postgres"), System.getProperty("test.pg.password", ""));
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate(false);
+        int ownerId = jdbcTemplate.queryForObject("INSERT INTO users (name, email) " +
+                "VALUES ('owner', 'owner@email.com') RETURNING user_id", Integer.class);
+        bookerId = jdbcTemplate.queryForObject("INSERT INTO users (name, email) " +
+                "VALUES ('booker', 'booker@email.com') RETURNING user_id", Integer.class);
+        itemId = jdbcTemplate.queryForObject("INSERT INTO items (name, description, is_available, owner_id, " +
+                "request_id) VALUES ('item', 'item', true, ?, 0) RETURNING item_id", Integer.class, ownerId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void partitionAfterMigrationsWithoutPartitioning() {
+        LocalDateTime now = LocalDateTime.now();
+        insertBooking(now.minusMonths(2), now.minusMonths(2).plusDays(1));
+        insertBooking(now.plusMonths(1), now.plusMonths(1).plusDays(1));
+
+        assertThat(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class)).isFalse();
+
+        migrate(true);
+
+        assertThat(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_history", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_default", Integer.class))
+                .isEqualTo(0);
+        assertThat(insertBooking(now.plusDays(1), now.plusDays(2)))
+                .isGreaterThan(jdbcTemplate.queryForObject("SELECT MAX(booking_id) FROM bookings " +
+                        "WHERE start_time < ?", Integer.class, now));
+
+        migrate(true);      // Already partitioned table is kept
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void keepSingleTableWithLongBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        insertBooking(now.minusDays(400), now.plusDays(1));
+
+        migrate(true);
+
+        assertThat(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class)).isFalse();
+    }
+
+    @Test
+    void createPartitionWithBookingsInDefaultPartition() {
+        migrate(true);
+        LocalDate month = LocalDate.now().withDayOfMonth(1).plusYears(2);
+        String partition = String.format("bookings_%d_%02d", month.getYear(), month.getMonthValue());
+        int bookingId = insertBooking(month.plusDays(10).atStartOfDay(), month.plusDays(11).atStartOfDay());
+        insertBooking(month.plusMonths(1).atStartOfDay(), month.plusMonths(1).plusDays(1).atStartOfDay());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_default", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT create_bookings_partition(?)", Boolean.class,
+                month.plusDays(3))).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT create_bookings_partition(?)", Boolean.class, month))
+                .isFalse();
+
+        assertThat(jdbcTemplate.queryForList("SELECT booking_id FROM " + partition, Integer.class))
+                .containsExactly(bookingId);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_default", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE booking_id = ?",
+                Integer.class, bookingId)).isEqualTo(1);
+    }
+
+    private void migrate(boolean partitioning) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .placeholders(Map.of("bookings_partitioning", String.valueOf(partitioning)))
+                .load()
+                .migrate();
+    }
+
+    private int insertBooking(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings (start_time, end_time, item_id, user_id, " +
+                "owner_id, state) VALUES (?, ?, ?, ?, (SELECT owner_id FROM items WHERE item_id = ?), 'APPROVED') " +
+                "RETURNING booking_id", Integer.class, start, end, itemId, bookerId, itemId);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRepositoryCustomImplTest {
+
+    @Mock
+    JdbcTemplate mockJdbcTemplate;
+
+    BookingRepositoryCustomImpl bookingRepositoryCustom;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepositoryCustom = new BookingRepositoryCustomImpl(mockJdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateWaitingStatusWithCounts() {
+        when(mockJdbcTemplate.batchUpdate(anyString(), eq(List.of(1, 2)), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0}});
+
+        boolean[] updated = bookingRepositoryCustom.updateWaitingStatus(List.of(1, 2), BookingStatus.APPROVED);
+
+        assertArrayEquals(new boolean[]{true, false}, updated);
+        verify(mockJdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateWaitingStatusWithoutCounts() {
+        when(mockJdbcTemplate.batchUpdate(anyString(), eq(List.of(1, 2, 3)), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, 0}});
+        when(mockJdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenReturn(List.of(2));     // Booking 1 was checked by another request
+
+        boolean[] updated = bookingRepositoryCustom.updateWaitingStatus(List.of(1, 2, 3), BookingStatus.APPROVED);
+
+        assertArrayEquals(new boolean[]{false, true, false}, updated);
+    }
+}
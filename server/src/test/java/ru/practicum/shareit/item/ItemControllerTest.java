@@ -9,16 +9,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -87,6 +91,24 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemBookingDto.getAvailable())));
     }
 
+    @Test
+    void getItemByIdNotModifiedTest() throws Exception {
+        when(itemService.getItemById(1, "1"))
+                .thenReturn(itemBookingDto);
+
+        String etag = mockMvc.perform(get("/items/{itemId}", 1)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/items/{itemId}", 1)
+                        .header("X-Sharer-User-Id", "1")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getAllItemsTest() throws Exception {
         List<ItemBookingDto> defaultList = new ArrayList<>();
@@ -154,4 +176,25 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName", is(commentDto.getAuthorName())));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        IntervalDto intervalDto = IntervalDto.builder()
+                .start(from)
+                .end(to)
+                .build();
+        when(itemService.getAvailability(1, from, to, "1"))
+                .thenReturn(List.of(intervalDto));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1)
+                        .contentType("application/json")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-02T10:00:00")));
+    }
+}
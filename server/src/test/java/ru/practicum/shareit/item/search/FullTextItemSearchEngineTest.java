@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FullTextItemSearchEngineTest {
+
+    @Test
+    void toTsQuery() {
+        assertEquals("дрель:* & аккумуляторная:*", FullTextItemSearchEngine.toTsQuery("Дрель  аккумуляторная"));
+    }
+
+    @Test
+    void toTsQueryWithOperators() {
+        assertEquals("item:* & 2:*", FullTextItemSearchEngine.toTsQuery("item' | !2:*"));
+    }
+
+    @Test
+    void toTsQueryWithoutWords() {
+        assertEquals("", FullTextItemSearchEngine.toTsQuery("&|!"));
+    }
+}
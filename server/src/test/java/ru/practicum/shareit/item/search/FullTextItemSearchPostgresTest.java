@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full-text search on PostgreSQL with server migrations.
+ * Runs only on demand: mvn test -Dtest=FullTextItemSearchPostgresTest
+ * -Dtest.pg.url=jdbc:postgresql://host:port/db (-Dtest.pg.user, -Dtest.pg.password)
+ */
+@Transactional
+@SpringBootTest(properties = "shareit.search.mode=fulltext")
+@EnabledIfSystemProperty(named = "test.pg.url", matches = ".+")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FullTextItemSearchPostgresTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemSearchEngine itemSearchEngine;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> System.getProperty("test.pg.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("test.pg.user", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("test.pg.password", ""));
+    }
+
+    @Test
+    void searchWithFullTextIndexTest() {
+        String userId = String.valueOf(userService.createUser(UserDto.builder()
+                .name("user")
+                .email("fulltext-user@email.com")
+                .build()).getId());
+        ItemDto drill = createItem("Дрель аккумуляторная", "дрель с двумя батареями", true, userId);
+        ItemDto saw = createItem("Пила", "ручная пила, подходит к дрели", true, userId);
+        createItem("Дрель ударная", "дрель в ремонте", false, userId);
+        createItem("Молоток", "молоток", true, userId);
+
+        List<Integer> result = ids(itemSearchEngine.search("ДРЕЛ", PageRequest.of(0, 10)));
+        List<Integer> afterDrill = ids(itemSearchEngine.searchAfter("дрел", drill.getId(), 10));
+
+        assertThat(itemSearchEngine).isInstanceOf(FullTextItemSearchEngine.class);
+        assertThat(result).containsExactly(drill.getId(), saw.getId());     // More matches rank higher
+        assertThat(afterDrill).containsExactly(saw.getId());
+        assertThat(ids(itemSearchEngine.search("пила дрел", PageRequest.of(0, 10)))).containsExactly(saw.getId());
+        assertThat(itemSearchEngine.search("!&|", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private ItemDto createItem(String name, String description, boolean available, String userId) {
+        return itemService.createItem(ItemDto.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .build(), userId);
+    }
+
+    private static List<Integer> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexItemSearchEngineTest {
+
+    @Mock
+    ItemRepository mockItemRepository;
+    InvertedIndexItemSearchEngine indexItemSearchEngine;
+
+    Item drill;
+    Item screwdriver;
+    Item saw;
+
+    @BeforeEach
+    void setUp() {
+        indexItemSearchEngine = new InvertedIndexItemSearchEngine(mockItemRepository, 2);
+        drill = Item.builder()
+                .id(1)
+                .name("Дрель")
+                .description("Простая дрель")
+                .ownerId(1)
+                .isAvailable(true)
+                .build();
+        screwdriver = Item.builder()
+                .id(2)
+                .name("Отвертка")
+                .description("Аккумуляторная отвертка")
+                .ownerId(1)
+                .isAvailable(true)
+                .build();
+        saw = Item.builder()
+                .id(3)
+                .name("Пила")
+                .description("Аккумуляторная пила")
+                .ownerId(1)
+                .isAvailable(false)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexItemSearchEngine.shutdown();
+    }
+
+    @Test
+    void rebuildAndSearch() {
+        when(mockItemRepository.findTopByOrderByIdDesc())
+                .thenReturn(Optional.of(saw));
+        when(mockItemRepository.findByIdBetween(0, 9_999))
+                .thenReturn(List.of(drill, screwdriver, saw));
+        when(mockItemRepository.findAllById(List.of(2)))
+                .thenReturn(List.of(screwdriver));
+
+        indexItemSearchEngine.rebuild().join();
+        List<Item> result = indexItemSearchEngine.search("аккум", Pageable.unpaged());
+
+        assertEquals(List.of(screwdriver), result);
+    }
+
+    @Test
+    void searchAfterItemSaved() {
+        indexItemSearchEngine.rebuild().join();
+        indexItemSearchEngine.onItemSaved(drill);
+        indexItemSearchEngine.onItemSaved(screwdriver);
+        saw.setIsAvailable(true);
+        indexItemSearchEngine.onItemSaved(saw);
+
+        when(mockItemRepository.findAllById(List.of(3)))
+                .thenReturn(List.of(saw));
+
+        List<Item> result = indexItemSearchEngine.search("Аккумуляторная", PageRequest.of(1, 1));
+
+        assertEquals(List.of(saw), result);
+    }
+
+    @Test
+    void searchWithoutMatches() {
+        indexItemSearchEngine.rebuild().join();
+        indexItemSearchEngine.onItemSaved(drill);
+
+        List<Item> result = indexItemSearchEngine.search("пила", Pageable.unpaged());
+
+        assertEquals(List.of(), result);
+    }
+
+    @Test
+    void searchAfterItemId() {
+        indexItemSearchEngine.rebuild().join();
+        indexItemSearchEngine.onItemSaved(drill);
+        indexItemSearchEngine.onItemSaved(screwdriver);
+        saw.setIsAvailable(true);
+        indexItemSearchEngine.onItemSaved(saw);
+
+        when(mockItemRepository.findAllById(List.of(3)))
+                .thenReturn(List.of(saw));
+
+        List<Item> result = indexItemSearchEngine.searchAfter("аккумуляторная", 2, 10);
+
+        assertEquals(List.of(saw), result);
+    }
+
+    @Test
+    void searchWithFallbackBeforeRebuild() {
+        indexItemSearchEngine.onItemSaved(screwdriver);
+        when(mockItemRepository.searchAfter("%аккум%", 0, PageRequest.of(0, 10)))
+                .thenReturn(List.of(screwdriver));
+
+        List<Item> result = indexItemSearchEngine.searchAfter("аккум", 0, 10);
+
+        assertFalse(indexItemSearchEngine.isReady());
+        assertEquals(List.of(screwdriver), result);
+    }
+
+    @Test
+    void searchWithFallbackAfterFailedRebuild() {
+        when(mockItemRepository.findTopByOrderByIdDesc())
+                .thenThrow(new IllegalStateException("database is not available"));
+
+        CompletableFuture<Void> rebuild = indexItemSearchEngine.rebuild();
+
+        assertThrows(CompletionException.class, rebuild::join);
+        assertFalse(indexItemSearchEngine.isReady());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InvertedIndexTest {
+
+    InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(3, List.of("дрель", "аккумуляторная"));
+        index.put(1, List.of("дрель", "ударная"));
+        index.put(2, List.of("отвертка", "аккумуляторная"));
+    }
+
+    @Test
+    void searchByPrefix() {
+        assertArrayEquals(new int[]{1, 3}, index.search(List.of("дре")));
+        assertArrayEquals(new int[]{2, 3}, index.search(List.of("аккум")));
+    }
+
+    @Test
+    void searchAllWords() {
+        assertArrayEquals(new int[]{3}, index.search(List.of("дрель", "акк")));
+        assertArrayEquals(new int[0], index.search(List.of("отвертка", "дрель")));
+        assertArrayEquals(new int[0], index.search(List.of()));
+    }
+
+    @Test
+    void putReplacesTerms() {
+        index.put(3, List.of("пила"));
+        index.put(2, List.of());
+
+        assertArrayEquals(new int[]{1}, index.search(List.of("дрель")));
+        assertArrayEquals(new int[]{3}, index.search(List.of("пила")));
+        assertArrayEquals(new int[0], index.search(List.of("аккумуляторная")));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void putAllSkipsItems() {
+        index.put(4, List.of("пила"));
+        index.putAll(Map.of(4, List.of("молоток"), 5, List.of("молоток")), Set.of(4));
+
+        assertArrayEquals(new int[]{5}, index.search(List.of("молоток")));
+        assertArrayEquals(new int[]{4}, index.search(List.of("пила")));
+    }
+}
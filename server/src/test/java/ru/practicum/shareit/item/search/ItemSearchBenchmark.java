@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of LIKE and full-text item search on PostgreSQL.
+ * Runs only on demand: mvn test -Dtest=ItemSearchBenchmark -Dbenchmark.pg.url=jdbc:postgresql://host:port/db
+ * (-Dbenchmark.pg.user, -Dbenchmark.pg.password, -Dbenchmark.items, default 1 000 000)
+ * on a database with server migrations applied
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.pg.url", matches = ".+")
+class ItemSearchBenchmark {
+
+    private static final String[] WORDS = {"дрель", "отвертка", "лестница", "палатка", "велосипед", "пила",
+            "молоток", "камера", "проектор", "лодка", "drill", "ladder", "tent", "bike", "saw", "hammer"};
+
+    private static final int RUNS = 20;
+
+    private static final int OWNERS = 1000;
+
+    /**
+     * Number of rare model words like model42, one in every description
+     */
+    private static final int MODELS = 100_000;
+
+    private static final String LIKE_QUERY = "SELECT i.* FROM items AS i " +
+            "WHERE i.is_available AND (lower(i.name) LIKE ? OR lower(i.description) LIKE ?) " +
+            "LIMIT 20";
+
+    private static final String FULL_TEXT_QUERY = "SELECT i.* FROM items AS i " +
+            "WHERE i.is_available AND i.search_vector @@ to_tsquery('simple', ?) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('simple', ?)) DESC, i.item_id " +
+            "LIMIT 20";
+
+    private static final String FULL_TEXT_AFTER_QUERY = "SELECT i.* FROM items AS i " +
+            "WHERE i.is_available AND i.search_vector @@ to_tsquery('simple', ?) AND i.item_id > ? " +
+            "ORDER BY i.item_id " +
+            "LIMIT 20";
+
+    private Connection connection;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.pg.url"),
+                System.getProperty("benchmark.pg.user"), System.getProperty("benchmark.pg.password"));
+        int items = Integer.getInteger("benchmark.items", 1_000_000);
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM items")) {
+            resultSet.next();
+            if (resultSet.getInt(1) >= items) {
+                return;
+            }
+        }
+
+        List<Integer> owners = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("INSERT INTO users (name, email) " +
+                     "SELECT 'owner ' || n, 'benchmark-owner-' || n || '@email.com' FROM generate_series(1, " +
+                     OWNERS + ") AS n ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name RETURNING user_id")) {
+            while (resultSet.next()) {
+                owners.add(resultSet.getInt(1));
+            }
+        }
+
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO items" +
+                "(name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, 0)")) {
+            for (int i = 1; i <= items; i++) {
+                statement.setString(1, randomText(random, 2) + " " + i);
+                statement.setString(2, randomText(random, 12) + " model" + random.nextInt(MODELS));
+                statement.setBoolean(3, random.nextInt(10) != 0);
+                statement.setInt(4, owners.get(random.nextInt(owners.size())));
+                statement.addBatch();
+                if (i % 10_000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE items");
+        }
+    }
+
+    @Test
+    void compareLikeAndFullTextSearch() throws SQLException {
+        for (String text : new String[]{"дрель", "велосипед пила", "model4242", "дрель model4242"}) {
+            String like = "%" + text + "%";
+            String tsQuery = FullTextItemSearchEngine.toTsQuery(text);
+
+            long likeNanos = measure(LIKE_QUERY, like, like);
+            long fullTextNanos = measure(FULL_TEXT_QUERY, tsQuery, tsQuery);
+            long fullTextAfterNanos = measure(FULL_TEXT_AFTER_QUERY, tsQuery, 0);
+
+            System.out.printf("search '%s': like %.2f ms, full-text ranked %.2f ms, full-text by id %.2f ms%n",
+                    text, likeNanos / 1e6, fullTextNanos / 1e6, fullTextAfterNanos / 1e6);
+        }
+    }
+
+    private long measure(String sql, Object first, Object second) throws SQLException {
+        long total = 0;
+        for (int run = -RUNS / 4; run < RUNS; run++) {      // First runs are warm-up
+            long start = System.nanoTime();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setObject(1, first);
+                statement.setObject(2, second);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getInt("item_id");
+                    }
+                }
+            }
+            if (run >= 0) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / RUNS;
+    }
+
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@Transactional
+@SpringBootTest(properties = "shareit.search.mode=fulltext")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemSearchIntegrationTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemSearchEngine itemSearchEngine;
+
+    @Test
+    void searchWithFullTextModeOnH2Test() {
+        UserDto createdUser = userService.createUser(UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build());
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto itemDto = itemService.createItem(ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build(), userId);
+
+        List<ItemDto> result = itemService.searchItems("item", null, null, userId);
+
+        assertThat(itemSearchEngine).isInstanceOf(FullTextItemSearchEngine.class);
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(itemDto);
+    }
+
+    @Test
+    void searchWildcardCharactersTest() {
+        UserDto createdUser = userService.createUser(UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build());
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto discount = itemService.createItem(ItemDto.builder()
+                .name("Палатка")
+                .description("скидка 50% до конца месяца")
+                .available(true)
+                .build(), userId);
+        itemService.createItem(ItemDto.builder()
+                .name("Дрель")
+                .description("скидка 50 рублей")
+                .available(true)
+                .build(), userId);
+
+        List<Item> byPercent = itemSearchEngine.searchAfter("%", 0, 10);
+        List<Item> byUnderscore = itemSearchEngine.searchAfter("50_", 0, 10);
+
+        assertThat(byPercent.size()).isEqualTo(1);
+        assertThat(byPercent.get(0).getId()).isEqualTo(discount.getId());
+        assertThat(byUnderscore.size()).isEqualTo(0);
+    }
+}
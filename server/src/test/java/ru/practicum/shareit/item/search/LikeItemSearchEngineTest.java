@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LikeItemSearchEngineTest {
+
+    @Mock
+    ItemRepository mockItemRepository;
+    @InjectMocks
+    LikeItemSearchEngine likeItemSearchEngine;
+
+    List<Item> itemList = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        itemList.add(Item.builder()
+                .id(1)
+                .name("test item")
+                .description("test")
+                .ownerId(1)
+                .isAvailable(true)
+                .build());
+    }
+
+    @Test
+    void searchWithoutPagination() {
+        when(mockItemRepository.findAll(Mockito.any(BooleanExpression.class)))
+                .thenReturn(itemList);
+
+        List<Item> result = likeItemSearchEngine.search("item", Pageable.unpaged());
+
+        assertEquals(itemList, result);
+    }
+
+    @Test
+    void searchWithPagination() {
+        when(mockItemRepository.findAll(Mockito.any(BooleanExpression.class), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(itemList));
+
+        List<Item> result = likeItemSearchEngine.search("item", PageRequest.of(0, 20));
+
+        assertEquals(itemList, result);
+    }
+
+    @Test
+    void searchAfterWithWildcards() {
+        when(mockItemRepository.searchAfter("%100\\%\\_\\\\%", 1, PageRequest.of(0, 20)))
+                .thenReturn(itemList);
+
+        List<Item> result = likeItemSearchEngine.searchAfter("100%_\\", 1, 20);
+
+        assertEquals(itemList, result);
+    }
+}
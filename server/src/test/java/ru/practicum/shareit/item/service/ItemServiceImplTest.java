@@ -8,34 +8,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingHistoryRepository;
+import ru.practicum.shareit.booking.storage.BookingItemView;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemCache;
+import ru.practicum.shareit.item.storage.ItemCalendarCache;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,7 +59,15 @@ class ItemServiceImplTest {
     @Mock
     BookingRepository mockBookingRepository;
     @Mock
+    BookingHistoryRepository mockBookingHistoryRepository;
+    @Mock
     CommentRepository mockCommentRepository;
+    @Spy
+    ItemCache itemCache = new ItemCache(100, Duration.ofMinutes(10));
+    @Spy
+    ItemCalendarCache itemCalendarCache = new ItemCalendarCache(100);
+    @Mock
+    ItemSearchEngine mockItemSearchEngine;
     @InjectMocks
     ItemServiceImpl itemService;
 
@@ -107,7 +126,7 @@ class ItemServiceImplTest {
                 .end(end)
                 .item(item)
                 .booker(user)
-                .state(BookingState.WAITING)
+                .status(BookingStatus.WAITING)
                 .build();
         itemBookingDto = ItemBookingDto.builder()
                 .id(1)
@@ -121,8 +140,6 @@ class ItemServiceImplTest {
 
     @Test
     void createItem() {
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
         when(mockItemRepository.save(Mockito.any(Item.class)))
                 .thenReturn(item);
 
@@ -142,12 +159,10 @@ class ItemServiceImplTest {
 
         when(mockItemRepository.findById(Mockito.anyInt()))
                 .thenReturn(Optional.ofNullable(item));
-        when(mockBookingRepository.findByItem_IdAndStartIsBefore(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockBookingRepository.findByItem_IdAndStartIsAfter(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
+        when(mockBookingRepository.findLastBooking(Mockito.anyInt(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.of(toBookingItemView(booking)));
+        when(mockBookingRepository.findNextBooking(Mockito.anyInt(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.of(toBookingItemView(booking)));
         when(mockCommentRepository.findByItem_Id(Mockito.anyInt()))
                 .thenReturn(commentList);
 
@@ -168,13 +183,11 @@ class ItemServiceImplTest {
 
         when(mockItemRepository.findByOwnerId(Mockito.anyInt()))
                 .thenReturn(itemList);
-        when(mockBookingRepository.findByItem_IdAndStartIsBefore(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockBookingRepository.findByItem_IdAndStartIsAfter(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockCommentRepository.findByItem_Id(Mockito.anyInt()))
+        when(mockBookingRepository.findLastBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.findNextBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockCommentRepository.findByItem_IdIn(Mockito.anyCollection()))
                 .thenReturn(commentList);
 
         List<ItemBookingDto> result = itemService.getAllItems(null, null, userId);
@@ -194,13 +207,11 @@ class ItemServiceImplTest {
 
         when(mockItemRepository.findByOwnerId(Mockito.anyInt()))
                 .thenReturn(itemList);
-        when(mockBookingRepository.findByItem_IdAndStartIsBefore(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockBookingRepository.findByItem_IdAndStartIsAfter(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockCommentRepository.findByItem_Id(Mockito.anyInt()))
+        when(mockBookingRepository.findLastBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.findNextBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockCommentRepository.findByItem_IdIn(Mockito.anyCollection()))
                 .thenReturn(commentList);
 
         List<ItemBookingDto> result = itemService.getAllItems(0, null, userId);
@@ -222,13 +233,11 @@ class ItemServiceImplTest {
 
         when(mockItemRepository.findByOwnerId(Mockito.anyInt(), Mockito.any(Pageable.class)))
                 .thenReturn(itemPage);
-        when(mockBookingRepository.findByItem_IdAndStartIsBefore(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockBookingRepository.findByItem_IdAndStartIsAfter(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockCommentRepository.findByItem_Id(Mockito.anyInt()))
+        when(mockBookingRepository.findLastBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.findNextBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockCommentRepository.findByItem_IdIn(Mockito.anyCollection()))
                 .thenReturn(commentList);
 
         List<ItemBookingDto> result = itemService.getAllItems(0, 20, userId);
@@ -237,6 +246,39 @@ class ItemServiceImplTest {
         assertEquals(itemBookingDtoList, result);
     }
 
+    @Test
+    void getAllItemsWithBookingsAndComments() {
+        Item item2 = Item.builder()
+                .id(2)
+                .name("test item 2")
+                .description("test")
+                .ownerId(1)
+                .isAvailable(true)
+                .build();
+        List<Item> itemList = new ArrayList<>();
+        itemList.add(item);
+        itemList.add(item2);
+        commentList.add(comment);
+
+        when(mockItemRepository.findByOwnerId(Mockito.anyInt()))
+                .thenReturn(itemList);
+        when(mockBookingRepository.findLastBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+        when(mockBookingRepository.findNextBookings(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(toBookingItemView(booking)));
+        when(mockCommentRepository.findByItem_IdIn(Mockito.anyCollection()))
+                .thenReturn(commentList);
+
+        List<ItemBookingDto> result = itemService.getAllItems(null, null, userId);
+
+        assertEquals(2, result.size());
+        assertEquals(BookingMapper.toBookingItemDto(booking), result.get(0).getNextBooking());
+        assertEquals(CommentMapper.toListCommentDto(commentList), result.get(0).getComments());
+        assertNull(result.get(1).getNextBooking());
+        assertNull(result.get(1).getLastBooking());
+        assertEquals(new ArrayList<>(), result.get(1).getComments());
+    }
+
     @Test
     void updateItem() {
         when(mockItemRepository.findById(Mockito.anyInt()))
@@ -258,7 +300,7 @@ class ItemServiceImplTest {
         List<ItemDto> itemBookingDtoList = new ArrayList<>();
         itemBookingDtoList.add(itemDto);
 
-        when(mockItemRepository.findAll(Mockito.any(BooleanExpression.class)))
+        when(mockItemSearchEngine.search("item", Pageable.unpaged()))
                 .thenReturn(itemList);
 
         List<ItemDto> result = itemService.searchItems("item", null, null, userId);
@@ -275,7 +317,7 @@ class ItemServiceImplTest {
         List<ItemDto> itemBookingDtoList = new ArrayList<>();
         itemBookingDtoList.add(itemDto);
 
-        when(mockItemRepository.findAll(Mockito.any(BooleanExpression.class)))
+        when(mockItemSearchEngine.search("item", Pageable.unpaged()))
                 .thenReturn(itemList);
 
         List<ItemDto> result = itemService.searchItems("item", 0, null, userId);
@@ -298,13 +340,12 @@ class ItemServiceImplTest {
     void searchItemsWithPagination() {
         List<Item> itemList = new ArrayList<>();
         itemList.add(item);
-        Page<Item> itemPage = new PageImpl<>(itemList);
 
         List<ItemDto> itemBookingDtoList = new ArrayList<>();
         itemBookingDtoList.add(itemDto);
 
-        when(mockItemRepository.findAll(Mockito.any(BooleanExpression.class), Mockito.any(Pageable.class)))
-                .thenReturn(itemPage);
+        when(mockItemSearchEngine.search("item", PageRequest.of(0, 20)))
+                .thenReturn(itemList);
 
         List<ItemDto> result = itemService.searchItems("item", 0, 20, userId);
 
@@ -315,20 +356,17 @@ class ItemServiceImplTest {
     @Test
     void addComment() {
         CommentDto commentDto = CommentMapper.toCommentDto(comment);
-        bookingList.add(booking);
 
-        when(mockBookingRepository.findAll(Mockito.any(BooleanExpression.class)))
-                .thenReturn(bookingList);
+        when(mockBookingHistoryRepository.exists(Mockito.any(BooleanExpression.class)))
+                .thenReturn(true);
         when(mockCommentRepository.save(Mockito.any(Comment.class)))
                 .thenReturn(comment);
         when(mockItemRepository.findById(Mockito.anyInt()))
                 .thenReturn(Optional.ofNullable(item));
-        when(mockBookingRepository.findByItem_IdAndStartIsBefore(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
-        when(mockBookingRepository.findByItem_IdAndStartIsAfter(Mockito.anyInt(), Mockito.any(LocalDateTime.class),
-                Mockito.any()))
-                .thenReturn(bookingList);
+        when(mockBookingRepository.findLastBooking(Mockito.anyInt(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.of(toBookingItemView(booking)));
+        when(mockBookingRepository.findNextBooking(Mockito.anyInt(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(Optional.of(toBookingItemView(booking)));
         when(mockCommentRepository.findByItem_Id(Mockito.anyInt()))
                 .thenReturn(commentList);
         when(mockUserService.getUserById(Mockito.anyInt()))
@@ -345,10 +383,81 @@ class ItemServiceImplTest {
     @Test
     void addCommentForItemWithoutBookings() {
         CommentDto commentDto = CommentMapper.toCommentDto(comment);
-        when(mockBookingRepository.findAll(Mockito.any(BooleanExpression.class)))
-                .thenReturn(bookingList);
+        when(mockBookingHistoryRepository.exists(Mockito.any(BooleanExpression.class)))
+                .thenReturn(false);
 
         Assertions.assertThrows(ValidationException.class, () ->
                 itemService.addComment(commentDto, item.getId(), userId));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability() {
+        Booking overlapping = Booking.builder()
+                .id(2)
+                .start(start.plusHours(12))
+                .end(end.plusHours(12))
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(mockItemRepository.existsById(item.getId()))
+                .thenReturn(true);
+        when(mockBookingRepository.findBusyBookings(Mockito.eq(item.getId()), Mockito.any(LocalDateTime.class),
+                Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(toBookingItemView(booking), toBookingItemView(overlapping)));
+
+        List<IntervalDto> result = itemService.getAvailability(item.getId(), start.minusHours(12),
+                end.plusDays(1), userId);
+        itemService.getAvailability(item.getId(), start.minusHours(6), end, userId);
+
+        assertEquals(List.of(IntervalDto.builder().start(start.minusHours(12)).end(start).build(),
+                IntervalDto.builder().start(end.plusHours(12)).end(end.plusDays(1)).build()), result);
+        Mockito.verify(mockBookingRepository, Mockito.times(1))
+                .findBusyBookings(Mockito.eq(item.getId()), Mockito.any(LocalDateTime.class),
+                        Mockito.any(LocalDateTime.class));
+    }
+
+    @Test
+    void getAvailabilityWrongPeriod() {
+        Assertions.assertThrows(ValidationException.class, () ->
+                itemService.getAvailability(item.getId(), end, start, userId));
+    }
+
+    @Test
+    void getAvailabilityOfNotExistingItem() {
+        when(mockItemRepository.existsById(item.getId()))
+                .thenReturn(false);
+
+        Assertions.assertThrows(NoSuchElementException.class, () ->
+                itemService.getAvailability(item.getId(), start, end, userId));
+    }
+
+    private static BookingItemView toBookingItemView(Booking booking) {
+        return new BookingItemView() {
+            @Override
+            public int getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public int getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public int getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return booking.getEnd();
+            }
+        };
+    }
+}
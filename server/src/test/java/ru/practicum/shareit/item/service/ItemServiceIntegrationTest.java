@@ -6,17 +6,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
 import ru.practicum.shareit.booking.dto.BookingPostDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.CursorPage;
 
 import javax.transaction.Transactional;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +38,7 @@ public class ItemServiceIntegrationTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
 
 
     @Test
@@ -127,6 +133,108 @@ public class ItemServiceIntegrationTest {
         assertThat(result).isEqualTo(defaultList);
     }
 
+    @Test
+    void getAllItemsWithNextBookingTest() {
+        UserDto createdUser = userService.createUser(UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build());
+        String userId = String.valueOf(createdUser.getId());
+        UserDto bookerDto = userService.createUser(UserDto.builder()
+                .name("booker")
+                .email("booker@emai.com")
+                .build());
+
+        ItemDto itemDto = itemService.createItem(ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build(), userId);
+        ItemDto otherItemDto = itemService.createItem(ItemDto.builder()
+                .name("other item")
+                .description("test")
+                .available(true)
+                .build(), userId);
+
+        BookingPostDto first = BookingPostDto.builder()
+                .itemId(itemDto.getId())
+                .start(created.plusDays(1))
+                .end(created.plusDays(2))
+                .build();
+        BookingPostDto second = BookingPostDto.builder()
+                .itemId(itemDto.getId())
+                .start(created.plusDays(3))
+                .end(created.plusDays(4))
+                .build();
+        int nextBookingId = bookingService.createBooking(first, String.valueOf(bookerDto.getId())).getId();
+        bookingService.createBooking(second, String.valueOf(bookerDto.getId()));
+
+        List<ItemBookingDto> result = itemService.getAllItems(null, null, userId);
+
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.get(0).getNextBooking().getId()).isEqualTo(nextBookingId);
+        assertThat(result.get(0).getNextBooking().getBookerId()).isEqualTo(bookerDto.getId());
+        assertThat(result.get(0).getLastBooking()).isNull();
+        assertThat(result.get(1).getId()).isEqualTo(otherItemDto.getId());
+        assertThat(result.get(1).getNextBooking()).isNull();
+    }
+
+    @Test
+    void getAvailabilityTest() {
+        UserDto createdUser = userService.createUser(UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build());
+        String userId = String.valueOf(createdUser.getId());
+        UserDto bookerDto = userService.createUser(UserDto.builder()
+                .name("booker")
+                .email("booker@emai.com")
+                .build());
+        ItemDto itemDto = itemService.createItem(ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build(), userId);
+        LocalDateTime start = created.truncatedTo(ChronoUnit.SECONDS);
+
+        BookingPostDto first = BookingPostDto.builder()
+                .itemId(itemDto.getId())
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .build();
+        BookingPostDto second = BookingPostDto.builder()
+                .itemId(itemDto.getId())
+                .start(start.plusDays(2))
+                .end(start.plusDays(4))
+                .build();
+        bookingService.createBooking(first, String.valueOf(bookerDto.getId()));
+        int secondId = bookingService.createBooking(second, String.valueOf(bookerDto.getId())).getId();
+
+        List<IntervalDto> result = itemService.getAvailability(itemDto.getId(), start.plusHours(12),
+                start.plusDays(5), userId);
+
+        assertThat(result).isEqualTo(List.of(
+                IntervalDto.builder().start(start.plusHours(12)).end(start.plusDays(1)).build(),
+                IntervalDto.builder().start(start.plusDays(4)).end(start.plusDays(5)).build()));
+
+        bookingService.updateBookingStatus(secondId, false, userId);
+        TestTransaction.flagForCommit();        // Calendar is evicted after commit
+        TestTransaction.end();
+        TestTransaction.start();
+        try {
+            result = itemService.getAvailability(itemDto.getId(), start.plusHours(12), start.plusDays(5), userId);
+
+            assertThat(result).isEqualTo(List.of(
+                    IntervalDto.builder().start(start.plusHours(12)).end(start.plusDays(1)).build(),
+                    IntervalDto.builder().start(start.plusDays(3)).end(start.plusDays(5)).build()));
+        } finally {
+            jdbcTemplate.update("DELETE FROM bookings WHERE item_id = ?", itemDto.getId());
+            jdbcTemplate.update("DELETE FROM items WHERE item_id = ?", itemDto.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE user_id IN (?, ?)", createdUser.getId(), bookerDto.getId());
+            TestTransaction.flagForCommit();
+        }
+    }
+
     @Test
     void updateItemTest() {
         UserDto userDto = UserDto.builder()
@@ -225,4 +333,70 @@ public class ItemServiceIntegrationTest {
         Assertions.assertThrows(ValidationException.class, () ->
                 itemService.addComment(commentDto, itemId, String.valueOf(bookerId)));
     }
+
+    @Test
+    void getAllItemsByCursorTest() {
+        UserDto userDto = UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build();
+        UserDto createdUser = userService.createUser(userDto);
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto itemDto = ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build();
+        ItemDto itemDto2 = ItemDto.builder()
+                .name("test item 2")
+                .description("test")
+                .available(true)
+                .build();
+        itemDto = itemService.createItem(itemDto, userId);
+        itemDto2 = itemService.createItem(itemDto2, userId);
+
+        CursorPage<ItemBookingDto> firstPage = itemService.getAllItemsByCursor("", 1, userId);
+        CursorPage<ItemBookingDto> secondPage = itemService.getAllItemsByCursor(firstPage.getNextCursor(), 1,
+                userId);
+
+        assertThat(firstPage.getContent().get(0).getId()).isEqualTo(itemDto.getId());
+        assertThat(firstPage.getContent().get(0).getComments()).isEqualTo(new ArrayList<>());
+        assertThat(secondPage.getContent().get(0).getId()).isEqualTo(itemDto2.getId());
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchItemsByCursorTest() {
+        UserDto userDto = UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build();
+        UserDto createdUser = userService.createUser(userDto);
+        String userId = String.valueOf(createdUser.getId());
+
+        ItemDto itemDto = ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build();
+        ItemDto itemDto2 = ItemDto.builder()
+                .name("test item 2")
+                .description("test")
+                .available(true)
+                .build();
+        itemDto = itemService.createItem(itemDto, userId);
+        itemDto2 = itemService.createItem(itemDto2, userId);
+
+        CursorPage<ItemDto> firstPage = itemService.searchItemsByCursor("item", "", 1, userId);
+        CursorPage<ItemDto> secondPage = itemService.searchItemsByCursor("item", firstPage.getNextCursor(), 1,
+                userId);
+
+        assertThat(firstPage.getContent()).isEqualTo(List.of(itemDto));
+        assertThat(secondPage.getContent()).isEqualTo(List.of(itemDto2));
+        assertThat(secondPage.getNextCursor()).isNull();
+
+        Assertions.assertThrows(ValidationException.class,
+                () -> itemService.searchItemsByCursor("item", "wrong", 1, userId));
+    }
 }
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ItemCacheTest {
+
+    ItemCache itemCache;
+    AtomicInteger loads;
+    IntFunction<ItemBookingDto> loader;
+
+    @BeforeEach
+    void setUp() {
+        itemCache = new ItemCache(2, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+        loader = itemId -> {
+            loads.incrementAndGet();
+            return ItemBookingDto.builder()
+                    .id(itemId)
+                    .name("test item")
+                    .description("test")
+                    .ownerId(1)
+                    .available(true)
+                    .build();
+        };
+    }
+
+    @Test
+    void getFromCache() {
+        ItemBookingDto first = itemCache.get(1, loader);
+        ItemBookingDto second = itemCache.get(1, loader);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, itemCache.getHits());
+        assertEquals(1, itemCache.getMisses());
+    }
+
+    @Test
+    void getAfterEvict() {
+        itemCache.get(1, loader);
+        itemCache.evict(1);
+        itemCache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, itemCache.getHits());
+        assertEquals(2, itemCache.getMisses());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        itemCache.get(1, loader);
+        itemCache.get(2, loader);
+        itemCache.get(1, loader);
+        itemCache.get(3, loader);   // Item 2 is the least recently used one
+        itemCache.get(1, loader);
+        itemCache.get(2, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, itemCache.size());
+        assertEquals(2, itemCache.getEvictions());
+    }
+
+    @Test
+    void getAfterNextBookingStarted() {
+        IntFunction<ItemBookingDto> bookedLoader = itemId -> {
+            ItemBookingDto itemBookingDto = loader.apply(itemId);
+            itemBookingDto.setNextBooking(BookingItemDto.builder()
+                    .id(1)
+                    .start(LocalDateTime.now().minusSeconds(1))
+                    .end(LocalDateTime.now().plusDays(1))
+                    .build());
+            return itemBookingDto;
+        };
+
+        itemCache.get(1, bookedLoader);
+        itemCache.get(1, bookedLoader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getAfterTtl() {
+        itemCache = new ItemCache(2, Duration.ZERO);
+
+        itemCache.get(1, loader);
+        itemCache.get(1, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void skipSnapshotLoadedDuringEvict() {
+        itemCache.get(1, itemId -> {
+            ItemBookingDto itemBookingDto = loader.apply(itemId);
+            itemCache.evict(itemId);     // Item is changed while the snapshot is loaded
+            return itemBookingDto;
+        });
+        itemCache.get(2, loader);
+        itemCache.get(1, loader);
+
+        assertEquals(3, loads.get());
+        assertEquals(2, itemCache.size());
+    }
+
+    @Test
+    void getAfterEvictAll() {
+        itemCache.get(1, loader);
+        itemCache.get(2, loader);
+        itemCache.evictAll(List.of(1, 2));
+
+        assertEquals(0, itemCache.size());
+    }
+}
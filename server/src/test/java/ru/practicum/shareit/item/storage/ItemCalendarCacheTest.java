@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ItemCalendarCacheTest {
+
+    private static final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    ItemCalendarCache itemCalendarCache;
+    AtomicInteger loads;
+    IntFunction<List<IntervalDto>> loader;
+
+    @BeforeEach
+    void setUp() {
+        itemCalendarCache = new ItemCalendarCache(2);
+        loads = new AtomicInteger();
+        loader = itemId -> {
+            loads.incrementAndGet();
+            return List.of(IntervalDto.builder()
+                    .start(start)
+                    .end(start.plusDays(itemId))
+                    .build());
+        };
+    }
+
+    @Test
+    void getFromCache() {
+        List<IntervalDto> first = itemCalendarCache.get(1, loader);
+        List<IntervalDto> second = itemCalendarCache.get(1, loader);
+
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, itemCalendarCache.getHits());
+        assertEquals(1, itemCalendarCache.getMisses());
+        assertThrows(UnsupportedOperationException.class, () -> second.add(first.get(0)));
+    }
+
+    @Test
+    void getAfterEvict() {
+        itemCalendarCache.get(1, loader);
+        itemCalendarCache.evict(1);
+        itemCalendarCache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, itemCalendarCache.getHits());
+        assertEquals(2, itemCalendarCache.getMisses());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        itemCalendarCache.get(1, loader);
+        itemCalendarCache.get(2, loader);
+        itemCalendarCache.get(1, loader);
+        itemCalendarCache.get(3, loader);   // Item 2 is the least recently used one
+        itemCalendarCache.get(1, loader);
+        itemCalendarCache.get(2, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, itemCalendarCache.size());
+    }
+
+    @Test
+    void skipLoadedDuringEvict() {
+        itemCalendarCache.get(1, itemId -> {
+            itemCalendarCache.evict(itemId);      // Booking of item changed while loading
+            return loader.apply(itemId);
+        });
+        itemCalendarCache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, itemCalendarCache.size());
+    }
+}
@@ -8,13 +8,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.model.QRequest;
@@ -58,6 +56,7 @@ class RequestServiceImplTest {
     List<RequestDto> requestDtoList = new ArrayList<>();
     Item item;
     List<Item> items = new ArrayList<>();
+    Sort createdSort = Sort.by(Sort.Direction.DESC, "created").and(Sort.by(Sort.Direction.DESC, "id"));
 
 
     @BeforeEach
@@ -78,6 +77,7 @@ class RequestServiceImplTest {
                 .description("test")
                 .ownerId(1)
                 .isAvailable(true)
+                .requestId(1)
                 .build();
         items.add(item);
 
@@ -104,8 +104,6 @@ class RequestServiceImplTest {
     void createRequest() {
         String userId = String.valueOf(user.getId());
 
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
         when(mockRequestRepository.save(Mockito.any(Request.class)))
                 .thenReturn(request);
 
@@ -121,16 +119,13 @@ class RequestServiceImplTest {
     void getUserRequests() {
         String userId = String.valueOf(user.getId());
 
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
 
         BooleanExpression byRequester = QRequest.request.requester.eq(Integer.parseInt(userId));
         Sort.Direction sort = Sort.Direction.DESC;
 
         when(mockRequestRepository.findAll(byRequester, Sort.by(sort, "created")))
                 .thenReturn(requestList);
-        BooleanExpression byRequestId = QItem.item.requestId.eq(request.getId());
-        when(mockItemRepository.findAll(byRequestId))
+        when(mockItemRepository.findByRequestIdIn(List.of(request.getId())))
                 .thenReturn(items);
         createdRequest.setCreated(created);
         List<RequestDto> result = requestService.getUserRequests(userId);
@@ -142,13 +137,12 @@ class RequestServiceImplTest {
     @Test
     void getAllRequestsWithoutPagination() {
         String userId = String.valueOf(user.getId());
+        Request otherRequest = toOtherRequest();
 
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
-        when(mockRequestRepository.findAll())
-                .thenReturn(requestList);
-        createdRequest.setCreated(created);
-        createdRequest.setItems(null);
+        when(mockRequestRepository.findByRequesterNot(user.getId(), PageRequest.of(0, 1000, createdSort)))
+                .thenReturn(new SliceImpl<>(List.of(otherRequest)));
+        when(mockItemRepository.findByRequestIdIn(List.of(otherRequest.getId())))
+                .thenReturn(items);
 
         List<RequestDto> result = requestService.getAllRequests(null, null, userId);
 
@@ -160,49 +154,27 @@ class RequestServiceImplTest {
     void getAllRequestsWithoutSize() {
         String userId = String.valueOf(user.getId());
 
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
-        when(mockRequestRepository.findAll())
-                .thenReturn(requestList);
-        createdRequest.setCreated(created);
-        createdRequest.setItems(null);
+        when(mockRequestRepository.findByRequesterNot(user.getId(), PageRequest.of(0, 1000, createdSort)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         List<RequestDto> result = requestService.getAllRequests(0, null, userId);
 
         assertNotNull(result);
-        assertEquals(requestDtoList, result);
+        assertEquals(List.of(), result);
+        Mockito.verify(mockItemRepository, Mockito.never()).findByRequestIdIn(Mockito.any());
     }
 
     @Test
     void getAllRequestsWithPagination() {
         String userId = String.valueOf(user.getId());
-
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
+        Request otherRequest = toOtherRequest();
 
         int from = 0;
         int size = 20;
 
-        Request newRequest = Request.builder()
-                .id(2)
-                .description("test")
-                .requester(2)
-                .created(created)
-                .build();
-        requestList.add(newRequest);
-
-        Sort.Direction sort = Sort.Direction.DESC;
-        PageRequest page = PageRequest.of(from / size, size, Sort.by(sort, "created"));
-        Page<Request> requestPage = new PageImpl<>(requestList);
-
-        when(mockRequestRepository.findAll(page))
-                .thenReturn(requestPage);
-        createdRequest.setId(newRequest.getId());
-        createdRequest.setRequester(newRequest.getRequester());
-        createdRequest.setCreated(created);
-
-        BooleanExpression expression = QItem.item.requestId.eq(newRequest.getId());
-        when(mockItemRepository.findAll(expression))
+        when(mockRequestRepository.findByRequesterNot(user.getId(), PageRequest.of(from / size, size, createdSort)))
+                .thenReturn(new SliceImpl<>(List.of(otherRequest)));
+        when(mockItemRepository.findByRequestIdIn(List.of(otherRequest.getId())))
                 .thenReturn(items);
 
         List<RequestDto> result = requestService.getAllRequests(from, size, userId);
@@ -215,13 +187,10 @@ class RequestServiceImplTest {
     void getRequestById() {
         String userId = String.valueOf(user.getId());
 
-        when(mockUserService.getUserById(user.getId()))
-                .thenReturn(userDto);
         when(mockRequestRepository.findById(Mockito.anyInt()))
                 .thenReturn(Optional.ofNullable(request));
 
-        BooleanExpression byRequestId = QItem.item.requestId.eq(request.getId());
-        when(mockItemRepository.findAll(byRequestId))
+        when(mockItemRepository.findByRequestIdIn(List.of(request.getId())))
                 .thenReturn(items);
 
         RequestDto result = requestService.getRequestById(request.getId(), userId);
@@ -232,4 +201,25 @@ class RequestServiceImplTest {
         assertEquals(createdRequest.getRequester(), result.getRequester());
         assertEquals(createdRequest.getItems(), result.getItems());
     }
-}
\ No newline at end of file
+
+    /**
+     * Make request of another user
+     * with the item for it
+     *
+     * @return request
+     */
+    private Request toOtherRequest() {
+        Request otherRequest = Request.builder()
+                .id(2)
+                .description("test")
+                .requester(2)
+                .created(created)
+                .build();
+        createdRequest.setId(otherRequest.getId());
+        createdRequest.setRequester(otherRequest.getRequester());
+        createdRequest.setCreated(created);
+        item.setRequestId(otherRequest.getId());
+        createdRequest.setItems(ItemMapper.toListItemRequestDto(items));
+        return otherRequest;
+    }
+}
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.CursorPage;
 
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +29,8 @@ public class RequestServiceIntegrationTest {
 
     private final RequestService requestService;
     private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Test
     void createRequestTest() {
@@ -97,19 +105,109 @@ public class RequestServiceIntegrationTest {
                 .name("user")
                 .email("user@emai.com")
                 .build();
-        UserDto createdUser = userService.createUser(userDto);
-        String userId = String.valueOf(createdUser.getId());
+        UserDto otherUserDto = UserDto.builder()
+                .name("other")
+                .email("other@emai.com")
+                .build();
+        String userId = String.valueOf(userService.createUser(userDto).getId());
+        String otherUserId = String.valueOf(userService.createUser(otherUserDto).getId());
 
         RequestDto newRequest = RequestDto.builder()
                 .description("test")
                 .build();
         RequestDto createdRequest = requestService.createRequest(newRequest, userId);
+        createdRequest.setItems(new ArrayList<>());
+        requestService.createRequest(RequestDto.builder()
+                .description("own")
+                .build(), otherUserId);
         List<RequestDto> requestDtoList = new ArrayList<>();
         requestDtoList.add(createdRequest);
 
-        List<RequestDto> result = requestService.getAllRequests(null, null, userId);
+        List<RequestDto> result = requestService.getAllRequests(null, null, otherUserId);
+        List<RequestDto> page = requestService.getAllRequests(0, 1, otherUserId);
 
         assertThat(requestDtoList).isEqualTo(result);
+        assertThat(requestDtoList).isEqualTo(page);
+    }
+
+    @Test
+    void getAllRequestsByCursorTest() {
+        UserDto userDto = UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build();
+        UserDto otherUserDto = UserDto.builder()
+                .name("other")
+                .email("other@emai.com")
+                .build();
+        String userId = String.valueOf(userService.createUser(userDto).getId());
+        String otherUserId = String.valueOf(userService.createUser(otherUserDto).getId());
 
+        RequestDto newRequest = RequestDto.builder()
+                .description("test")
+                .build();
+        RequestDto newRequest2 = RequestDto.builder()
+                .description("test 2")
+                .build();
+        RequestDto createdRequest = requestService.createRequest(newRequest, userId);
+        RequestDto createdRequest2 = requestService.createRequest(newRequest2, userId);
+
+        CursorPage<RequestDto> firstPage = requestService.getAllRequestsByCursor("", 1, otherUserId);
+
+        assertThat(firstPage.getContent().size()).isEqualTo(1);
+        assertThat(firstPage.getContent().get(0).getId()).isEqualTo(createdRequest2.getId());
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        CursorPage<RequestDto> secondPage = requestService.getAllRequestsByCursor(firstPage.getNextCursor(), 1,
+                otherUserId);
+
+        assertThat(secondPage.getContent().size()).isEqualTo(1);
+        assertThat(secondPage.getContent().get(0).getId()).isEqualTo(createdRequest.getId());
+        assertThat(secondPage.getNextCursor()).isNull();
+
+        CursorPage<RequestDto> ownPage = requestService.getAllRequestsByCursor("", 1, userId);
+
+        assertThat(ownPage.getContent().isEmpty()).isTrue();
+    }
+
+    @Test
+    void getUserRequestsQueryCountTest() {
+        UserDto userDto = UserDto.builder()
+                .name("user")
+                .email("user@emai.com")
+                .build();
+        UserDto ownerDto = UserDto.builder()
+                .name("owner")
+                .email("owner@emai.com")
+                .build();
+        String userId = String.valueOf(userService.createUser(userDto).getId());
+        String ownerId = String.valueOf(userService.createUser(ownerDto).getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        List<Long> queryCounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            RequestDto createdRequest = requestService.createRequest(RequestDto.builder()
+                    .description("test " + i)
+                    .build(), userId);
+            itemService.createItem(ItemDto.builder()
+                    .name("test item " + i)
+                    .description("test")
+                    .available(true)
+                    .requestId(createdRequest.getId())
+                    .build(), ownerId);
+
+            statistics.clear();
+            List<RequestDto> result = requestService.getUserRequests(userId);
+            queryCounts.add(statistics.getPrepareStatementCount());
+
+            assertThat(result.size()).isEqualTo(i + 1);
+            assertThat(result.get(0).getItems().size()).isEqualTo(1);
+        }
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(queryCounts.stream().distinct().count()).isEqualTo(1L);
+        assertThat(queryCounts.get(0)).isEqualTo(2L);
     }
 }
@@ -1,18 +1,25 @@
 package ru.practicum.shareit.user.service;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemCache;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserExistenceCache;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,6 +31,13 @@ class UserServiceImplTest {
 
     @Mock
     UserRepository mockUserRepository;
+    @Spy
+    UserExistenceCache userExistenceCache = new UserExistenceCache(100, Duration.ofMinutes(10),
+            Duration.ofSeconds(10));
+    @Mock
+    CommentRepository mockCommentRepository;
+    @Mock
+    ItemCache mockItemCache;
     @InjectMocks
     UserServiceImpl userService;
 
@@ -57,10 +71,27 @@ class UserServiceImplTest {
         when(mockUserRepository.save(Mockito.any(User.class)))
                 .thenReturn(UserMapper.toUser(userDto));
 
+        when(mockCommentRepository.findItemIdsByAuthorId(userDto.getId()))
+                .thenReturn(List.of(1, 2));
+
         UserDto result = userService.updateUser(userDto, userDto.getId());
 
         assertNotNull(result);
         assertEquals(userDto, result);
+        Mockito.verify(mockItemCache).evictAll(List.of(1, 2));
+    }
+
+    @Test
+    void updateUserEmail() {
+        userDto.setEmail("new@mail.com");
+        when(mockUserRepository.findById(Mockito.anyInt()))
+                .thenReturn(Optional.ofNullable(user));
+        when(mockUserRepository.save(Mockito.any(User.class)))
+                .thenReturn(UserMapper.toUser(userDto));
+
+        userService.updateUser(userDto, userDto.getId());
+
+        Mockito.verifyNoInteractions(mockItemCache);
     }
 
     @Test
@@ -75,6 +106,32 @@ class UserServiceImplTest {
 
     }
 
+    @Test
+    void checkUserExists() {
+        when(mockUserRepository.existsById(userDto.getId()))
+                .thenReturn(true);
+
+        userService.checkUserExists(userDto.getId());
+        userService.checkUserExists(userDto.getId());
+
+        Mockito.verify(mockUserRepository, Mockito.times(1)).existsById(userDto.getId());
+        assertEquals(1, userExistenceCache.getHits());
+    }
+
+    @Test
+    void checkUserExistsAfterCreateAndDelete() {
+        when(mockUserRepository.save(Mockito.any(User.class)))
+                .thenReturn(user);
+
+        userService.createUser(userDto);
+        userService.checkUserExists(userDto.getId());
+        userService.deleteUser(userDto.getId());
+
+        Assertions.assertThrows(NoSuchElementException.class, () ->
+                userService.checkUserExists(userDto.getId()));
+        Mockito.verify(mockUserRepository, Mockito.never()).existsById(Mockito.anyInt());
+    }
+
     @Test
     void getAllUsers() {
         List<User> userList = new ArrayList<>();
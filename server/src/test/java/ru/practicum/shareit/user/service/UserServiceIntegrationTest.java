@@ -1,11 +1,15 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.exceptions.ResourceConflictException;
 
 import javax.transaction.Transactional;
 import java.util.ArrayList;
@@ -20,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class UserServiceIntegrationTest {
     private final UserService userService;
+    private final ItemService itemService;
 
     @Test
     void createUserTest() {
@@ -93,6 +98,25 @@ public class UserServiceIntegrationTest {
         assertEquals(userDtoList, result);
     }
 
+    @Test
+    void deleteUserWithItemTest() {
+        UserDto userDto = UserDto.builder()
+                .name("user")
+                .email("user@mail.com")
+                .build();
+        UserDto createdUser = userService.createUser(userDto);
+
+        ItemDto itemDto = ItemDto.builder()
+                .name("test item")
+                .description("test")
+                .available(true)
+                .build();
+        itemService.createItem(itemDto, String.valueOf(createdUser.getId()));
+
+        Assertions.assertThrows(ResourceConflictException.class, () ->
+                userService.deleteUser(createdUser.getId()));
+    }
+
     @Test
     void getAllUsersTest() {
         UserDto userDto = UserDto.builder()
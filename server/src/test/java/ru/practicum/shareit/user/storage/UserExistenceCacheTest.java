@@ -0,0 +1,75 @@
+package ru.practicum.shareit.user.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserExistenceCacheTest {
+
+    UserExistenceCache userExistenceCache;
+    AtomicInteger loads;
+    IntPredicate loader;
+
+    @BeforeEach
+    void setUp() {
+        userExistenceCache = new UserExistenceCache(2, Duration.ofMinutes(10), Duration.ofSeconds(10));
+        loads = new AtomicInteger();
+        loader = userId -> {
+            loads.incrementAndGet();
+            return userId > 0;
+        };
+    }
+
+    @Test
+    void existsFromCache() {
+        assertTrue(userExistenceCache.exists(1, loader));
+        assertTrue(userExistenceCache.exists(1, loader));
+        assertFalse(userExistenceCache.exists(-1, loader));
+        assertFalse(userExistenceCache.exists(-1, loader));
+
+        assertEquals(2, loads.get());
+        assertEquals(2, userExistenceCache.getHits());
+        assertEquals(2, userExistenceCache.getMisses());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        userExistenceCache.exists(1, loader);
+        userExistenceCache.exists(2, loader);
+        userExistenceCache.exists(1, loader);
+        userExistenceCache.exists(3, loader);   // User 2 is the least recently used one
+        userExistenceCache.exists(1, loader);
+        userExistenceCache.exists(2, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, userExistenceCache.size());
+    }
+
+    @Test
+    void existsAfterTtl() {
+        userExistenceCache = new UserExistenceCache(2, Duration.ZERO, Duration.ZERO);
+
+        userExistenceCache.exists(1, loader);
+        userExistenceCache.exists(1, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void keepDeletedDuringCheck() {
+        userExistenceCache.exists(1, userId -> {
+            userExistenceCache.putDeleted(userId);     // User is deleted while the database is checked
+            return true;
+        });
+
+        assertFalse(userExistenceCache.exists(1, loader));
+        assertEquals(0, loads.get());
+    }
+}
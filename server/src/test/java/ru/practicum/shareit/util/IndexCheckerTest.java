@@ -0,0 +1,36 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class IndexCheckerTest {
+
+    private final IndexChecker indexChecker;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void checkIndexesAfterMigrations() {
+        assertEquals(List.of(), indexChecker.checkIndexes());
+    }
+
+    @Test
+    void checkIndexesWithMissingIndex() {
+        jdbcTemplate.execute("DROP INDEX idx_items_request_id");     // DDL is committed at once, not rolled back
+        try {
+            assertEquals(List.of("idx_items_request_id"), indexChecker.checkIndexes());
+        } finally {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id)");
+        }
+    }
+}
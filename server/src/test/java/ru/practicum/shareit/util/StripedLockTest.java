@@ -0,0 +1,84 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedLockTest {
+
+    @Test
+    void sizeIsPowerOfTwo() {
+        assertEquals(1, new StripedLock(1).size());
+        assertEquals(4, new StripedLock(3).size());
+        assertEquals(256, new StripedLock(256).size());
+    }
+
+    @Test
+    void sameKeySameLock() {
+        StripedLock stripedLock = new StripedLock(16);
+
+        assertSame(stripedLock.get(42), stripedLock.get(42));
+    }
+
+    @Test
+    void sequentialKeysSpreadOverLocks() {
+        StripedLock stripedLock = new StripedLock(64);
+        Set<Lock> locks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        IntStream.rangeClosed(1, 64).forEach(key -> locks.add(stripedLock.get(key)));
+
+        assertTrue(locks.size() > 32);
+    }
+
+    @Test
+    void otherStripeNotBlocked() {
+        StripedLock stripedLock = new StripedLock(64);
+        int otherKey = IntStream.rangeClosed(2, 64)
+                .filter(key -> stripedLock.get(key) != stripedLock.get(1))
+                .findFirst()
+                .orElseThrow();
+        assertNotSame(stripedLock.get(1), stripedLock.get(otherKey));
+
+        stripedLock.get(1).lock();
+        try {
+            assertTrue(CompletableFuture.supplyAsync(() -> tryLockAndUnlock(stripedLock.get(otherKey))).join());
+            assertFalse(CompletableFuture.supplyAsync(() -> tryLockAndUnlock(stripedLock.get(1))).join());
+        } finally {
+            stripedLock.get(1).unlock();
+        }
+    }
+
+    @Test
+    void getAllInStripeOrder() {
+        StripedLock stripedLock = new StripedLock(4);
+
+        List<Lock> forward = stripedLock.getAll(List.of(1, 2, 3, 4, 5, 6, 7, 8, 1));
+        List<Lock> backward = stripedLock.getAll(List.of(8, 7, 6, 5, 4, 3, 2, 1));
+
+        assertEquals(forward, backward);
+        assertEquals(forward.size(), Set.copyOf(forward).size());
+        assertTrue(forward.containsAll(IntStream.rangeClosed(1, 8).mapToObj(stripedLock::get)
+                .collect(Collectors.toList())));
+    }
+
+    private static boolean tryLockAndUnlock(Lock lock) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        lock.unlock();
+        return true;
+    }
+}